@@ -0,0 +1,113 @@
+package cn.chenlijian.little.benchmarks;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试共用的样例数据
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 构造一条典型的接口日志：带查询参数和小型 JSON 请求/响应体，无异常信息
+     *
+     * @return 日志记录
+     */
+    public static ApiLogDTO apiLog() {
+        ApiLogDTO record = new ApiLogDTO();
+        record.setTraceId("0f8fad5b-d9cb-469f-a165-70867728950e");
+        record.setHttpMethod("POST");
+        record.setRequestPath("/api/v1/orders/submit");
+        record.setRequestParams("{\"channel\":[\"app\"],\"version\":[\"3.2.1\"]}");
+        record.setRequestBody("{\"skuId\":10086,\"quantity\":2,\"addressId\":42,\"remark\":\"请尽快发货\"}");
+        record.setClientIp("192.168.10.25");
+        record.setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36");
+        record.setRequestTime(1_700_000_000_000L);
+        record.setResponseStatus(200);
+        record.setResponseBody("{\"code\":200,\"msg\":\"操作成功\",\"data\":{\"orderId\":\"202401010001\"}}");
+        record.setClassPath("com.example.order.controller.OrderController");
+        record.setActionMethod("submit");
+        record.setResponseTime(1_700_000_000_035L);
+        record.setDescription("提交订单");
+        record.setUsername("zhangsan");
+        record.setUserId(10001L);
+        return record;
+    }
+
+    /**
+     * 构造一个经过两层代理转发的 POST 请求
+     *
+     * @param bodySize 请求体的近似字节数
+     * @return 请求
+     */
+    public static MockHttpServletRequest request(int bodySize) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders/submit");
+        request.setQueryString("channel=app&version=3.2.1");
+        request.setRemoteAddr("10.0.0.8");
+        request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.3");
+        request.addHeader("user-agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36");
+        request.setContentType("application/json");
+        request.setCharacterEncoding("UTF-8");
+        request.setContent(json(bodySize).getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /**
+     * 构造一个约为指定字节数的 JSON 对象
+     *
+     * @param size 近似字节数
+     * @return JSON 字符串
+     */
+    public static String json(int size) {
+        StringBuilder builder = new StringBuilder(size + 32).append("{\"skuId\":10086,\"remark\":\"");
+        while (builder.length() < size - 2) {
+            builder.append('x');
+        }
+        return builder.append("\"}").toString();
+    }
+
+    /**
+     * 构造响应数据：指定数量的订单行组成的列表
+     *
+     * @param items 订单行数量
+     * @return 响应数据
+     */
+    public static List<Map<String, Object>> orders(int items) {
+        List<Map<String, Object>> orders = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("orderId", "2024010100" + i);
+            order.put("skuId", 10086 + i);
+            order.put("quantity", i % 5 + 1);
+            order.put("price", 199.9);
+            order.put("title", "测试商品 " + i);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    /**
+     * 构造指定数量的权限字符串
+     *
+     * @param count 权限数量
+     * @return 权限列表
+     */
+    public static List<String> authorities(int count) {
+        List<String> authorities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            authorities.add("module" + i / 10 + ":resource" + i + ":view");
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,44 @@
+package cn.chenlijian.little.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 按线程数依次运行基准测试，结果以 JSON 格式写入文件，便于在不同版本之间对比
+ * <p>
+ * 运行方式：{@code java -Dthreads=1,4 -DresultDir=target/jmh -cp little-benchmarks/target/benchmarks.jar cn.chenlijian.little.benchmarks.BenchmarkRunner [包含的基准测试正则]}
+ * <ul>
+ *     <li>{@code threads}：逗号分隔的线程数，默认 {@code 1,4}</li>
+ *     <li>{@code resultDir}：结果目录，默认 {@code target/jmh}，每个线程数生成一个 {@code jmh-result-t<线程数>.json}</li>
+ * </ul>
+ * 文件名不带时间戳，同一目录下重复运行会覆盖旧结果，对比时把两个版本的结果放在不同目录即可。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "cn\\.chenlijian\\.little\\.benchmarks\\..*";
+        File resultDir = new File(System.getProperty("resultDir", "target/jmh"));
+        if (!resultDir.isDirectory() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("无法创建结果目录: " + resultDir);
+        }
+        for (String value : System.getProperty("threads", "1,4").split(",")) {
+            int threads = Integer.parseInt(value.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "jmh-result-t" + threads + ".json").getPath());
+            new Runner(options.build()).run();
+        }
+    }
+}
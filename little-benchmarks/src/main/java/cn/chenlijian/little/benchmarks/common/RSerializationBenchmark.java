@@ -0,0 +1,75 @@
+package cn.chenlijian.little.benchmarks.common;
+
+import cn.chenlijian.little.benchmarks.BenchmarkData;
+import cn.chenlijian.little.common.api.R;
+import cn.hutool.json.JSONUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link R} 序列化基准测试
+ * Jackson 对应 Spring MVC 的响应输出，Hutool 对应日志中记录的响应体；
+ * jacksonBean 关闭注解，使用默认的 BeanSerializer 作为 {@link cn.chenlijian.little.common.api.RSerializer} 的对照
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RSerializationBenchmark {
+
+    /**
+     * 响应数据中的订单行数量，0 表示不带数据的成功响应
+     */
+    @Param({"0", "10", "100"})
+    private int items;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper beanMapper = JsonMapper.builder().disable(MapperFeature.USE_ANNOTATIONS).build();
+    private R<List<Map<String, Object>>> response;
+
+    @Setup
+    public void setup() {
+        response = items == 0 ? R.success() : R.success(BenchmarkData.orders(items));
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] jacksonBean() throws JsonProcessingException {
+        return beanMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public R<Object> success() {
+        return R.success();
+    }
+
+    @Benchmark
+    public String hutool() {
+        return JSONUtil.toJsonStr(response);
+    }
+}
@@ -0,0 +1,123 @@
+package cn.chenlijian.little.benchmarks.log;
+
+import cn.chenlijian.little.benchmarks.BenchmarkData;
+import cn.chenlijian.little.common.biz.log.annotaion.ApiLog;
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.aspect.ApiLogAspect;
+import cn.chenlijian.little.starter.log.capture.ApiLogSnapshot;
+import cn.chenlijian.little.starter.log.capture.BoundedCaptureRequestWrapper;
+import cn.chenlijian.little.starter.log.capture.CaptureBufferPool;
+import cn.chenlijian.little.starter.log.expression.ApiLogExpressionEvaluator;
+import cn.chenlijian.little.starter.log.props.LittleLogProperties;
+import cn.chenlijian.little.starter.log.publisher.LogPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ApiLogAspect} 请求线程开销基准测试
+ * 通过 AspectJ 代理调用带 {@code @ApiLog} 的方法，发布者只接收日志不做任何输出，
+ * 测得的是切面在请求线程中的全部开销：排除路径、采样、采集和（eager 模式下）构造日志记录。
+ * 每个线程持有自己的请求上下文，可以用 {@code -t} 或 {@code BenchmarkRunner} 测试多线程下的表现。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiLogAspectBenchmark {
+
+    @Param({"EAGER", "LAZY"})
+    private LittleLogProperties.CaptureMode captureMode;
+
+    /**
+     * 请求体字节数
+     */
+    @Param({"128", "8192"})
+    private int bodySize;
+
+    private OrderController controller;
+    private Map<String, Object> command;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        LittleLogProperties properties = new LittleLogProperties();
+        properties.setCaptureMode(captureMode);
+        ApiLogAspect aspect = new ApiLogAspect(properties, new DiscardingLogPublisher(), (request, hasError) -> true,
+                new ApiLogExpressionEvaluator(new SimpleMeterRegistry(), SpelCompilerMode.MIXED));
+        AspectJProxyFactory factory = new AspectJProxyFactory(new OrderController());
+        factory.addAspect(aspect);
+        controller = factory.getProxy();
+        command = Map.of("skuId", 10086, "quantity", 2);
+
+        // 与 RequestCachingFilter 一致：拦截器开启采集后，参数解析读取请求体时按上限复制
+        MockHttpServletRequest mock = BenchmarkData.request(bodySize);
+        BoundedCaptureRequestWrapper request = new BoundedCaptureRequestWrapper(mock, new CaptureBufferPool(properties.getRequestBody().getMaxBytes(), 1));
+        request.arm();
+        request.getInputStream().readAllBytes();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object submit() {
+        return controller.submit(command);
+    }
+
+    /**
+     * 被测接口，描述中带一个 SpEL 表达式
+     */
+    public static class OrderController {
+
+        @ApiLog("提交订单 #{#command['skuId']}")
+        public Map<String, Object> submit(Map<String, Object> command) {
+            return command;
+        }
+    }
+
+    /**
+     * 只保留最后一条日志的发布者，lazy 模式下快照不在请求线程中物化
+     */
+    private static final class DiscardingLogPublisher implements LogPublisher {
+
+        private volatile Object last;
+
+        @Override
+        public void publish(ApiLogDTO record) {
+            last = record;
+        }
+
+        @Override
+        public void publish(ApiLogSnapshot snapshot) {
+            last = snapshot;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package cn.chenlijian.little.benchmarks.log;
+
+import cn.chenlijian.little.benchmarks.BenchmarkData;
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.codec.JsonLogCodec;
+import cn.chenlijian.little.starter.log.codec.ProtostuffLogCodec;
+import cn.hutool.json.JSONUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志编解码基准测试
+ * 对比 Hutool 反射序列化、手写 JSON 与 protostuff 二进制编码的吞吐量，每条记录的编码字节数在初始化时打印
+ * <p>
+ * 运行方式：{@code mvn -pl little-benchmarks -am package && java -jar little-benchmarks/target/benchmarks.jar LogCodecBenchmark -prof gc}
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogCodecBenchmark {
+
+    private final JsonLogCodec jsonCodec = new JsonLogCodec();
+    private final ProtostuffLogCodec protostuffCodec = new ProtostuffLogCodec();
+
+    private ApiLogDTO record;
+    private byte[] jsonBytes;
+    private byte[] protostuffBytes;
+
+    @Setup
+    public void setup() {
+        record = BenchmarkData.apiLog();
+        jsonBytes = jsonCodec.encode(record);
+        protostuffBytes = protostuffCodec.encode(record);
+        System.out.printf("%nbytes/record: hutool=%d, json=%d, protostuff=%d%n",
+                JSONUtil.toJsonStr(record).getBytes(StandardCharsets.UTF_8).length,
+                jsonBytes.length, protostuffBytes.length);
+    }
+
+    @Benchmark
+    public byte[] hutoolEncode() {
+        return JSONUtil.toJsonStr(record).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonCodec.encode(record);
+    }
+
+    @Benchmark
+    public byte[] protostuffEncode() {
+        return protostuffCodec.encode(record);
+    }
+
+    @Benchmark
+    public ApiLogDTO jsonDecode() {
+        return jsonCodec.decode(jsonBytes);
+    }
+
+    @Benchmark
+    public ApiLogDTO protostuffDecode() {
+        return protostuffCodec.decode(protostuffBytes);
+    }
+}
@@ -0,0 +1,68 @@
+package cn.chenlijian.little.benchmarks.log;
+
+import cn.chenlijian.little.common.utils.ContextUtil;
+import cn.chenlijian.little.starter.log.trace.ContextPropagatingTaskDecorator;
+import cn.chenlijian.little.starter.log.trace.TraceContext;
+import cn.chenlijian.little.starter.log.trace.TraceIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 链路追踪上下文基准测试
+ * nextTraceId 为生成一个追踪 ID 的耗时；decorate 为提交异步任务时快照 MDC 和 ContextUtil 的耗时；
+ * decorateAndRun 还包括在执行线程中设置并恢复上下文的耗时
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceContextBenchmark {
+
+    private final ContextPropagatingTaskDecorator decorator = new ContextPropagatingTaskDecorator();
+    private final Runnable task = () -> {
+    };
+
+    @Setup
+    public void setup() {
+        MDC.put(TraceContext.TRACE_ID, TraceIdGenerator.next());
+        ContextUtil.set("userid", 10001L);
+        ContextUtil.set("account", "admin");
+    }
+
+    @TearDown
+    public void tearDown() {
+        MDC.clear();
+        ContextUtil.removeLocalContext();
+    }
+
+    @Benchmark
+    public String nextTraceId() {
+        return TraceIdGenerator.next();
+    }
+
+    @Benchmark
+    public Runnable decorate() {
+        return decorator.decorate(task);
+    }
+
+    @Benchmark
+    public void decorateAndRun() {
+        decorator.decorate(task).run();
+    }
+}
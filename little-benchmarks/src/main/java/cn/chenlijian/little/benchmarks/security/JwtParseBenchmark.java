@@ -0,0 +1,65 @@
+package cn.chenlijian.little.benchmarks.security;
+
+import cn.chenlijian.little.benchmarks.BenchmarkData;
+import cn.chenlijian.little.starter.security.props.LittleSecurityProperties;
+import cn.chenlijian.little.starter.security.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtUtil#parseToken(String)} 基准测试
+ * 对比开启和关闭已验证令牌缓存时的解析开销，令牌中携带不同数量的权限以改变负载大小
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    /**
+     * 是否开启已验证令牌缓存
+     */
+    @Param({"false", "true"})
+    private boolean tokenCache;
+
+    /**
+     * 令牌中携带的权限数量
+     */
+    @Param({"0", "50"})
+    private int authorities;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        LittleSecurityProperties properties = new LittleSecurityProperties();
+        properties.setJwtSecret("benchmark-secret-key-0123456789abcdef");
+        properties.getTokenCache().setEnabled(tokenCache);
+        jwtUtil = new JwtUtil(properties, new SimpleMeterRegistry());
+        token = authorities == 0 ? jwtUtil.generateToken("zhangsan")
+                : jwtUtil.generateToken("zhangsan", BenchmarkData.authorities(authorities));
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+}
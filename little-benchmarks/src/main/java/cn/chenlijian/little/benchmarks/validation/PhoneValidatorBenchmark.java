@@ -0,0 +1,51 @@
+package cn.chenlijian.little.benchmarks.validation;
+
+import cn.chenlijian.little.starter.validation.validator.PhoneValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PhoneValidator} 基准测试
+ * 每次调用轮换一组号码，避免分支预测只学习到单一输入
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhoneValidatorBenchmark {
+
+    @Param({"valid", "invalid"})
+    private String input;
+
+    private final PhoneValidator validator = new PhoneValidator();
+    private String[] phones;
+    private int index;
+
+    @Setup
+    public void setup() {
+        phones = "valid".equals(input)
+                ? new String[]{"13800138000", "15912345678", "18688886666", "19900001111"}
+                : new String[]{"12800138000", "1591234567", "186888866661", "1990000111a"};
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        String phone = phones[index++ & 3];
+        return validator.isValid(phone, null);
+    }
+}
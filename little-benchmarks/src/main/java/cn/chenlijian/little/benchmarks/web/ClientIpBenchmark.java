@@ -0,0 +1,55 @@
+package cn.chenlijian.little.benchmarks.web;
+
+import cn.chenlijian.little.common.utils.ClientIpResolver;
+import cn.chenlijian.little.starter.log.utils.WebUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WebUtil#getIP} 基准测试
+ * direct 为不经过代理的直连请求，不读取转发头；proxied 为经过多层可信代理、带 X-Forwarded-For 的请求，需要从右向左跳过可信代理
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientIpBenchmark {
+
+    @Param({"direct", "proxied"})
+    private String scenario;
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.setRemoteAddr("203.0.113.7");
+        if ("proxied".equals(scenario)) {
+            request.setRemoteAddr("10.0.0.8");
+            request.addHeader("X-Forwarded-For", "198.51.100.23, 203.0.113.7, 10.0.0.3, 10.0.0.5");
+        }
+    }
+
+    @Benchmark
+    public String getIP() {
+        // 解析结果缓存在请求属性中，每次先移除，测量的是完整的解析过程
+        request.removeAttribute(ClientIpResolver.ATTRIBUTE);
+        return WebUtil.getIP(request);
+    }
+}
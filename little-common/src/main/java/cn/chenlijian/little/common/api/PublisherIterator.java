@@ -0,0 +1,155 @@
+package cn.chenlijian.little.common.api;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 把 {@link Publisher} 转换为阻塞的 {@link Iterator}
+ * 第一次调用 {@link #hasNext()} 时才订阅，先请求 prefetch 个元素，每消费 3/4 再补充请求，
+ * 未消费的元素不超过 prefetch 个，生产快于写出时由背压限制内存。
+ * <p>
+ * 只能由一个线程迭代，{@link #close()} 取消订阅。
+ *
+ * @param <T> 元素类型
+ * @author chenlijian xdmdcp@163.com
+ */
+final class PublisherIterator<T> implements Iterator<T>, Subscriber<T>, AutoCloseable {
+
+    private static final Object COMPLETE = new Object();
+
+    private final Publisher<? extends T> publisher;
+    private final int prefetch;
+    private final int limit;
+    /**
+     * 已请求未消费的元素不超过 prefetch 个，多留一个位置给结束信号
+     */
+    private final BlockingQueue<Object> queue;
+    private volatile Subscription subscription;
+    private volatile boolean cancelled;
+    private boolean subscribed;
+    private boolean done;
+    private int consumed;
+    private Object next;
+
+    PublisherIterator(Publisher<? extends T> publisher, int prefetch) {
+        this.publisher = publisher;
+        this.prefetch = Math.max(1, prefetch);
+        this.limit = Math.max(1, this.prefetch - (this.prefetch >> 2));
+        this.queue = new ArrayBlockingQueue<>(this.prefetch + 1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (done) {
+            return false;
+        }
+        if (!subscribed) {
+            subscribed = true;
+            publisher.subscribe(this);
+        }
+        Object signal;
+        try {
+            signal = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("等待数据时线程被中断", e);
+        }
+        if (signal == COMPLETE) {
+            done = true;
+            return false;
+        }
+        if (signal instanceof ErrorSignal error) {
+            done = true;
+            Throwable cause = error.cause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error fatal) {
+                throw fatal;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+        next = signal;
+        if (++consumed == limit) {
+            consumed = 0;
+            subscription.request(limit);
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object value = next;
+        next = null;
+        return (T) value;
+    }
+
+    @Override
+    public void close() {
+        cancelled = true;
+        done = true;
+        Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (item == null) {
+            onError(new NullPointerException("Publisher 发出了 null 元素"));
+            return;
+        }
+        if (!queue.offer(item)) {
+            // 发出的元素超过请求数量，违反背压约定
+            subscription.cancel();
+            onError(new IllegalStateException("Publisher 发出的元素超过请求数量"));
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        ErrorSignal signal = new ErrorSignal(throwable);
+        // 正常情况下总有位置留给结束信号，已收到的元素先于异常交给消费方
+        if (!queue.offer(signal)) {
+            queue.clear();
+            queue.offer(signal);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        queue.offer(COMPLETE);
+    }
+
+    private record ErrorSignal(Throwable cause) {
+    }
+}
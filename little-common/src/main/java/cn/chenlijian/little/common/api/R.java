@@ -1,19 +1,44 @@
 package cn.chenlijian.little.common.api;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 统一响应格式类，用于封装API接口的返回数据
  * <p>
  * 本类通过Lombok的@Data注解简化了getter和setter的编写，旨在减少 boilerplate code（模板代码）
  * </p>
+ * <p>
+ * 实例不可变，不带数据的响应（{@link #success()}、{@link #fail()}、{@link #fail(ResultCode)}）返回缓存的单例，不再每次创建；
+ * Jackson 使用 {@link RSerializer} 输出，状态码和常用消息预先编码，不经过反射。
+ * </p>
  *
  * @param <T> 泛型参数，用于存放响应数据的实际类型
  */
 @Data
+@JsonSerialize(using = RSerializer.class)
 public class R<T> {
+
+    static final String SUCCESS_MESSAGE = "操作成功";
+    static final String FAILURE_MESSAGE = "操作失败";
+
+    private static final R<?> SUCCESS = new R<>(ResultCode.SUCCESS, SUCCESS_MESSAGE, null);
+    private static final R<?> FAILURE = new R<>(ResultCode.FAILURE, FAILURE_MESSAGE, null);
+    /**
+     * 每个结果代码使用其默认消息、不带数据的响应
+     */
+    private static final Map<ResultCode, R<?>> RESULT_CODES = new EnumMap<>(ResultCode.class);
+
+    static {
+        for (ResultCode code : ResultCode.values()) {
+            RESULT_CODES.put(code, new R<>(code, code.getMessage(), null));
+        }
+    }
+
     /**
      * 响应状态码，用于标识响应的成功或失败
      */
@@ -52,8 +77,9 @@ public class R<T> {
      *
      * @return 成功响应的R对象，包含相应的成功状态码和提示消息
      */
+    @SuppressWarnings("unchecked")
     public static <T> R<T> success() {
-        return new R<>(ResultCode.SUCCESS, "操作成功", null);
+        return (R<T>) SUCCESS;
     }
 
     /**
@@ -63,7 +89,7 @@ public class R<T> {
      * @return 成功响应的R对象，包含相应的成功状态码和提示消息
      */
     public static <T> R<T> success(T data) {
-        return new R<>(ResultCode.SUCCESS, "操作成功", data);
+        return data == null ? success() : new R<>(ResultCode.SUCCESS, SUCCESS_MESSAGE, data);
     }
 
     /**
@@ -71,8 +97,20 @@ public class R<T> {
      *
      * @return 失败响应的R对象，包含相应的失败状态码和提示消息
      */
+    @SuppressWarnings("unchecked")
     public static <T> R<T> fail() {
-        return new R<>(ResultCode.FAILURE, "操作失败", null);
+        return (R<T>) FAILURE;
+    }
+
+    /**
+     * 静态工厂方法，用于创建使用结果代码默认消息的R对象
+     *
+     * @param code 结果代码
+     * @return 缓存的R对象
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> R<T> fail(ResultCode code) {
+        return (R<T>) RESULT_CODES.get(code);
     }
 
     public static <T> R<T> fail(String message) {
@@ -87,6 +125,9 @@ public class R<T> {
      * @return 失败响应的R对象
      */
     public static <T> R<T> fail(ResultCode code, String message) {
+        if (message != null && message.equals(code.getMessage())) {
+            return fail(code);
+        }
         return new R<>(code, message, null);
     }
 
@@ -0,0 +1,125 @@
+package cn.chenlijian.little.common.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link R} 的 Jackson 序列化器
+ * 字段名和常用消息（{@link ResultCode} 的默认消息、操作成功/失败）使用 {@link SerializedString}，
+ * 其 UTF-8 字节和转义结果只计算一次，输出时直接复制；状态码直接写数字，data 交给对应类型的序列化器流式输出，
+ * 不经过 BeanSerializer 的反射访问和属性过滤。
+ * <p>
+ * 输出与默认的 Bean 序列化一致：字段顺序为 code、message、data；
+ * 全局配置了非 null 包含规则（例如 {@code spring.jackson.default-property-inclusion=non_null}）时省略 null 的 message 和 data。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class RSerializer extends StdSerializer<R<?>> implements ContextualSerializer {
+
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString DATA = new SerializedString("data");
+
+    /**
+     * 预先编码的常用消息，类初始化后只读
+     */
+    private static final Map<String, SerializedString> MESSAGES = new HashMap<>();
+
+    static {
+        MESSAGES.put(R.SUCCESS_MESSAGE, new SerializedString(R.SUCCESS_MESSAGE));
+        MESSAGES.put(R.FAILURE_MESSAGE, new SerializedString(R.FAILURE_MESSAGE));
+        for (ResultCode code : ResultCode.values()) {
+            MESSAGES.computeIfAbsent(code.getMessage(), SerializedString::new);
+        }
+    }
+
+    private final boolean skipNulls;
+
+    public RSerializer() {
+        this(false);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private RSerializer(boolean skipNulls) {
+        super((Class<R<?>>) (Class) R.class);
+        this.skipNulls = skipNulls;
+    }
+
+    /**
+     * 按 ObjectMapper 的包含规则确定是否省略 null 字段，结果随序列化器一起被 Jackson 缓存
+     */
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+        JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(R.class).getValueInclusion();
+        boolean skip = inclusion != JsonInclude.Include.ALWAYS && inclusion != JsonInclude.Include.USE_DEFAULTS;
+        return skip == skipNulls ? this : new RSerializer(skip);
+    }
+
+    @Override
+    public void serialize(R<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        writeFields(value, gen, provider);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(R<?> value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException {
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+        writeFields(value, gen, provider);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    private void writeFields(R<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeFieldName(CODE);
+        gen.writeNumber(value.getCode());
+        String message = value.getMessage();
+        if (message != null || !skipNulls) {
+            gen.writeFieldName(MESSAGE);
+            writeMessage(message, gen);
+        }
+        Object data = value.getData();
+        if (data != null || !skipNulls) {
+            gen.writeFieldName(DATA);
+            provider.defaultSerializeValue(data, gen);
+        }
+    }
+
+    /**
+     * 写出 code、message 和 data 字段名，供流式输出在 data 数组之前写出响应头
+     *
+     * @param code    状态码
+     * @param message 消息
+     * @param gen     生成器，当前位于对象内
+     * @throws IOException 写出失败
+     */
+    public static void writeHeader(int code, String message, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(CODE);
+        gen.writeNumber(code);
+        gen.writeFieldName(MESSAGE);
+        writeMessage(message, gen);
+        gen.writeFieldName(DATA);
+    }
+
+    private static void writeMessage(String message, JsonGenerator gen) throws IOException {
+        SerializedString encoded = message == null ? null : MESSAGES.get(message);
+        if (encoded != null) {
+            gen.writeString(encoded);
+        } else {
+            gen.writeString(message);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package cn.chenlijian.little.common.api;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Getter;
+import org.reactivestreams.Publisher;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * 流式输出的统一响应，用于返回大量数据的接口
+ * 与 {@link R} 的 JSON 结构相同，但 data 来自 {@link Stream}、{@link Iterator} 或 {@link Publisher}，
+ * 先写出 code 和 message，再逐个写出元素，不需要把全部数据加载到一个 List 中。
+ * <p>
+ * 数据只能读取一次，写出结束或失败后关闭数据源（例如关闭 Stream 释放数据库游标、取消 Publisher 的订阅）。
+ * little-starter-web 为其注册了消息转换器，按请求的媒体类型输出 JSON 或 NDJSON（每行一个元素，不带外层结构），并定期刷新输出流；
+ * 直接交给 ObjectMapper 时由 {@link StreamingRSerializer} 输出 JSON。
+ *
+ * @param <T> 元素类型
+ * @author chenlijian xdmdcp@163.com
+ */
+@JsonSerialize(using = StreamingRSerializer.class)
+public final class StreamingR<T> implements AutoCloseable {
+
+    /**
+     * 从 Publisher 预取的默认元素数量
+     */
+    public static final int DEFAULT_PREFETCH = 256;
+
+    /**
+     * 响应状态码
+     */
+    @Getter
+    private final int code;
+
+    /**
+     * 响应消息
+     */
+    @Getter
+    private final String message;
+
+    private final Iterator<? extends T> data;
+    private final AutoCloseable resource;
+    private final AtomicBoolean opened = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private StreamingR(int code, String message, Iterator<? extends T> data, AutoCloseable resource) {
+        this.code = code;
+        this.message = message;
+        this.data = data;
+        this.resource = resource;
+    }
+
+    /**
+     * 以 Stream 作为数据创建成功响应，写出结束后关闭 Stream
+     *
+     * @param data 数据
+     * @return 流式响应
+     */
+    public static <T> StreamingR<T> success(Stream<? extends T> data) {
+        return new StreamingR<>(ResultCode.SUCCESS.getCode(), R.SUCCESS_MESSAGE, data.iterator(), data);
+    }
+
+    /**
+     * 以 Iterable 作为数据创建成功响应
+     *
+     * @param data 数据
+     * @return 流式响应
+     */
+    public static <T> StreamingR<T> success(Iterable<? extends T> data) {
+        return success(data.iterator());
+    }
+
+    /**
+     * 以 Iterator 作为数据创建成功响应，Iterator 实现了 {@link AutoCloseable} 时写出结束后关闭
+     *
+     * @param data 数据
+     * @return 流式响应
+     */
+    public static <T> StreamingR<T> success(Iterator<? extends T> data) {
+        AutoCloseable resource = data instanceof AutoCloseable closeable ? closeable : null;
+        return new StreamingR<>(ResultCode.SUCCESS.getCode(), R.SUCCESS_MESSAGE, data, resource);
+    }
+
+    /**
+     * 以 Publisher 作为数据创建成功响应，按 {@link #DEFAULT_PREFETCH} 个元素背压
+     *
+     * @param data 数据
+     * @return 流式响应
+     */
+    public static <T> StreamingR<T> success(Publisher<? extends T> data) {
+        return success(data, DEFAULT_PREFETCH);
+    }
+
+    /**
+     * 以 Publisher 作为数据创建成功响应
+     * 写出线程阻塞等待元素，未写出的元素不超过 prefetch 个；写出结束或失败后取消订阅
+     *
+     * @param data     数据
+     * @param prefetch 预取的元素数量
+     * @return 流式响应
+     */
+    public static <T> StreamingR<T> success(Publisher<? extends T> data, int prefetch) {
+        PublisherIterator<T> iterator = new PublisherIterator<>(data, prefetch);
+        return new StreamingR<>(ResultCode.SUCCESS.getCode(), R.SUCCESS_MESSAGE, iterator, iterator);
+    }
+
+    /**
+     * 获取数据，只能调用一次
+     *
+     * @return 数据
+     * @throws IllegalStateException 数据已被读取
+     */
+    public Iterator<? extends T> open() {
+        if (!opened.compareAndSet(false, true)) {
+            throw new IllegalStateException("StreamingR 的数据只能读取一次");
+        }
+        return data;
+    }
+
+    /**
+     * 关闭数据源，重复调用无效果
+     */
+    @Override
+    public void close() {
+        if (resource == null || !closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("关闭数据源失败", e);
+        }
+    }
+
+    /**
+     * 不读取数据，避免日志等组件调用时消耗掉数据
+     */
+    @Override
+    public String toString() {
+        return "StreamingR(code=" + code + ", message=" + message + ", data=<stream>)";
+    }
+}
@@ -0,0 +1,38 @@
+package cn.chenlijian.little.common.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * {@link StreamingR} 的 Jackson 序列化器
+ * 先写出 code 和 message，再逐个写出 data 中的元素，元素按运行时类型序列化；写出结束或失败后关闭数据源。
+ * 内存占用只有生成器的缓冲区，缓冲区满后写入底层输出流。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class StreamingRSerializer extends StdSerializer<StreamingR<?>> {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StreamingRSerializer() {
+        super((Class<StreamingR<?>>) (Class) StreamingR.class);
+    }
+
+    @Override
+    public void serialize(StreamingR<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        try (value) {
+            gen.writeStartObject(value);
+            RSerializer.writeHeader(value.getCode(), value.getMessage(), gen);
+            gen.writeStartArray();
+            Iterator<?> data = value.open();
+            while (data.hasNext()) {
+                provider.defaultSerializeValue(data.next(), gen);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+}
@@ -2,14 +2,18 @@ package cn.chenlijian.little.common.biz.security.annotation;
 
 import java.lang.annotation.*;
 
-// 定义该注解应用于方法级别
-@Target(value = ElementType.METHOD)
+// 定义该注解应用于方法和类级别，方法上的注解优先
+@Target(value = {ElementType.METHOD, ElementType.TYPE})
 // 定义该注解在运行时可见
 @Retention(RetentionPolicy.RUNTIME)
 // 表示该注解将被包含在javadoc中
 @Documented
 public @interface PreAuth {
 
+    /**
+     * 权限表达式，支持 permit()、denyAll()、hasAuthority('a')、anyOf('a', 'b')、allOf('a', 'b')，
+     * 或直接写权限字符串
+     */
     String value() default "permit()";
 
     String replace() default "";
@@ -0,0 +1,67 @@
+package cn.chenlijian.little.common.context;
+
+import cn.chenlijian.little.common.utils.ContextUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 请求上下文过滤器
+ * <ul>
+ *     <li>请求开始和结束时清理 {@link ContextUtil} 的线程变量，线程池中的请求线程不会把上一个请求设置的值带到下一个请求；</li>
+ *     <li>请求属性 {@value #CONTEXT_ATTRIBUTE} 中保存了 {@link LittleContext}（例如认证过滤器解析令牌后保存的）且当前线程没有绑定时，
+ *     在绑定范围内执行后续过滤器，异步派发在其他线程中执行时也能读取到认证时的上下文。</li>
+ * </ul>
+ * 过滤器应排在认证过滤器之前，首次派发时认证过滤器自己绑定上下文，异步派发时由本过滤器从请求属性中恢复。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class ContextFilter extends OncePerRequestFilter {
+
+    /**
+     * 保存请求上下文的请求属性名
+     */
+    public static final String CONTEXT_ATTRIBUTE = ContextFilter.class.getName() + ".CONTEXT";
+
+    /**
+     * 异步派发在其他线程中执行，同样需要清理线程变量并恢复上下文
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContextUtil.removeLocalContext();
+        try {
+            Object context = request.getAttribute(CONTEXT_ATTRIBUTE);
+            if (context instanceof LittleContext littleContext && !ContextHolder.isBound()) {
+                doFilterInContext(littleContext, request, response, filterChain);
+            } else {
+                filterChain.doFilter(request, response);
+            }
+        } finally {
+            ContextUtil.removeLocalContext();
+        }
+    }
+
+    private static void doFilterInContext(LittleContext context, HttpServletRequest request, HttpServletResponse response,
+                                          FilterChain filterChain) throws ServletException, IOException {
+        try {
+            ContextHolder.call(context, () -> {
+                filterChain.doFilter(request, response);
+                return null;
+            });
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+}
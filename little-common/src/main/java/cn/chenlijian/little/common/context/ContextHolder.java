@@ -0,0 +1,218 @@
+package cn.chenlijian.little.common.context;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+
+/**
+ * 请求上下文的绑定与读取
+ * 上下文只在 {@link #run} / {@link #call} 的执行范围内可见，范围结束后自动解除绑定，不存在忘记清理导致的泄漏。
+ * <p>
+ * 运行在 Java 21 及以上且 {@code java.lang.ScopedValue} 可用时（Java 21 需要 {@code --enable-preview}）使用作用域值绑定，
+ * 对虚拟线程更友好；否则退回到 {@link ThreadLocal}，进入范围时设置、退出时恢复原值。
+ * 可以通过系统属性 {@code -Dlittle.context.scoped-value=false} 强制使用 ThreadLocal。
+ * <p>
+ * 两种方式下上下文都不会自动传递给线程池中的线程，异步任务需要在提交时用 {@link #current()} 取出，在执行线程中重新绑定。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public final class ContextHolder {
+
+    private static final Binding BINDING = createBinding();
+
+    private ContextHolder() {
+    }
+
+    /**
+     * 获取当前线程绑定的上下文
+     *
+     * @return 上下文，没有绑定时返回 {@link LittleContext#EMPTY}
+     */
+    public static LittleContext current() {
+        LittleContext context = BINDING.get();
+        return context == null ? LittleContext.EMPTY : context;
+    }
+
+    /**
+     * 当前线程是否绑定了上下文
+     *
+     * @return true 表示已绑定
+     */
+    public static boolean isBound() {
+        return BINDING.get() != null;
+    }
+
+    /**
+     * 在绑定上下文的范围内执行任务
+     *
+     * @param context 上下文
+     * @param task    任务
+     */
+    public static void run(LittleContext context, Runnable task) {
+        BINDING.run(context, task);
+    }
+
+    /**
+     * 在绑定上下文的范围内执行任务并返回结果，任务抛出的异常原样抛出
+     *
+     * @param context 上下文
+     * @param task    任务
+     * @param <T>     结果类型
+     * @return 任务结果
+     * @throws Exception 任务抛出的异常
+     */
+    public static <T> T call(LittleContext context, Callable<T> task) throws Exception {
+        Object[] result = new Object[1];
+        try {
+            BINDING.run(context, () -> {
+                try {
+                    result[0] = task.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CheckedException(e);
+                }
+            });
+        } catch (CheckedException e) {
+            throw (Exception) e.getCause();
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    /**
+     * 是否使用 ScopedValue 绑定上下文
+     *
+     * @return true 表示使用 ScopedValue，false 表示使用 ThreadLocal
+     */
+    public static boolean isScopedValueSupported() {
+        return BINDING instanceof ScopedValueBinding;
+    }
+
+    private static Binding createBinding() {
+        if (Runtime.version().feature() >= 21 && Boolean.parseBoolean(System.getProperty("little.context.scoped-value", "true"))) {
+            try {
+                Binding binding = new ScopedValueBinding();
+                // 试用一次，Java 21 未开启预览特性等情况下会抛出异常
+                LittleContext probe = LittleContext.builder().build();
+                boolean[] visible = new boolean[1];
+                binding.run(probe, () -> visible[0] = binding.get() == probe);
+                if (visible[0] && binding.get() == null) {
+                    return binding;
+                }
+            } catch (Throwable e) {
+                log.debug("ScopedValue 不可用，使用 ThreadLocal 保存上下文: {}", e.toString());
+            }
+        }
+        return new ThreadLocalBinding();
+    }
+
+    /**
+     * 上下文的绑定方式
+     */
+    private interface Binding {
+
+        LittleContext get();
+
+        void run(LittleContext context, Runnable task);
+    }
+
+    private static final class ThreadLocalBinding implements Binding {
+
+        private final ThreadLocal<LittleContext> holder = new ThreadLocal<>();
+
+        @Override
+        public LittleContext get() {
+            return holder.get();
+        }
+
+        @Override
+        public void run(LittleContext context, Runnable task) {
+            LittleContext previous = holder.get();
+            holder.set(context);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    holder.remove();
+                } else {
+                    holder.set(previous);
+                }
+            }
+        }
+    }
+
+    /**
+     * 通过方法句柄调用 ScopedValue，源码仍可按 Java 17 编译
+     */
+    private static final class ScopedValueBinding implements Binding {
+
+        /**
+         * 未绑定时 orElse 返回的标记，较新的版本中 orElse 不接受 null
+         */
+        private static final Object UNBOUND = new Object();
+
+        private final Object key;
+        private final MethodHandle orElse;
+        private final MethodHandle where;
+        private final MethodHandle carrierRun;
+
+        private ScopedValueBinding() throws ReflectiveOperationException {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+            Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+            try {
+                this.key = lookup.findStatic(scopedValue, "newInstance", MethodType.methodType(scopedValue)).invoke();
+            } catch (ReflectiveOperationException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+            this.orElse = lookup.findVirtual(scopedValue, "orElse", MethodType.methodType(Object.class, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            this.where = lookup.findStatic(scopedValue, "where", MethodType.methodType(carrier, scopedValue, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            this.carrierRun = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+        }
+
+        @Override
+        public LittleContext get() {
+            try {
+                Object value = (Object) orElse.invokeExact(key, UNBOUND);
+                return value == UNBOUND ? null : (LittleContext) value;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void run(LittleContext context, Runnable task) {
+            try {
+                Object bound = (Object) where.invokeExact(key, (Object) context);
+                carrierRun.invokeExact(bound, task);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 在 Runnable 中传递受检异常
+     */
+    private static final class CheckedException extends RuntimeException {
+
+        private CheckedException(Exception cause) {
+            super(cause);
+        }
+    }
+}
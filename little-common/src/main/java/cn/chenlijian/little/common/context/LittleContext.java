@@ -0,0 +1,67 @@
+package cn.chenlijian.little.common.context;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.Map;
+
+/**
+ * 不可变的请求上下文
+ * 用户信息按原始类型保存，读取时不需要再做字符串转换；扩展属性保存在不可变的 Map 中。
+ * 实例创建后不能修改，可以安全地在线程之间共享，需要修改时通过 {@link #toBuilder()} 创建新的实例。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class LittleContext {
+
+    /**
+     * 空上下文，当前线程没有绑定上下文时返回
+     */
+    public static final LittleContext EMPTY = LittleContext.builder().build();
+
+    /**
+     * 用户id
+     */
+    private final Long userId;
+
+    /**
+     * 用户名称
+     */
+    private final String username;
+
+    /**
+     * 用户账号
+     */
+    private final String account;
+
+    /**
+     * 扩展属性
+     */
+    @Singular
+    private final Map<String, Object> attributes;
+
+    /**
+     * 获取扩展属性
+     *
+     * @param key  属性名
+     * @param type 属性类型
+     * @param <T>  属性类型
+     * @return 属性值，不存在或类型不一致时返回 null
+     */
+    public <T> T get(String key, Class<T> type) {
+        Object value = attributes.get(key);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    /**
+     * 是否为空上下文
+     *
+     * @return true 表示没有用户信息和扩展属性
+     */
+    public boolean isEmpty() {
+        return userId == null && username == null && account == null && attributes.isEmpty();
+    }
+}
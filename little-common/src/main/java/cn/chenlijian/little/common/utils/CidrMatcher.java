@@ -0,0 +1,350 @@
+package cn.chenlijian.little.common.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 预编译的 CIDR 地址段匹配器
+ * 启动时把一组 IPv4/IPv6 地址段编译为按位组织的二叉前缀树，匹配时直接在原字符串的指定区间内解析地址，
+ * 沿地址的比特位查找，不创建子串、不拆分数组，也不会像 {@code InetAddress.getByName} 那样可能触发 DNS 查询。
+ * <p>
+ * 地址段写法为 {@code 10.0.0.0/8}、{@code fc00::/7}，不带掩码时表示单个地址。
+ * IPv4 映射的 IPv6 地址（{@code ::ffff:10.1.2.3}）按 IPv4 地址匹配；IPv6 地址末尾的区域标识（{@code %eth0}）会被忽略。
+ * 实例不可变，是线程安全的。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class CidrMatcher {
+
+    /**
+     * 地址无法解析
+     */
+    public static final int INVALID = -1;
+    /**
+     * 地址不在任何地址段内
+     */
+    public static final int NO_MATCH = 0;
+    /**
+     * 地址在某个地址段内
+     */
+    public static final int MATCH = 1;
+
+    private static final CidrMatcher EMPTY = new CidrMatcher(new Trie(), new Trie(), 0);
+
+    private final Trie ipv4;
+    private final Trie ipv6;
+    private final int size;
+
+    private CidrMatcher(Trie ipv4, Trie ipv6, int size) {
+        this.ipv4 = ipv4;
+        this.ipv6 = ipv6;
+        this.size = size;
+    }
+
+    /**
+     * 编译地址段
+     *
+     * @param cidrs 地址段，可以为 null
+     * @return 地址段匹配器
+     * @throws IllegalArgumentException 地址段格式错误
+     */
+    public static CidrMatcher compile(Collection<String> cidrs) {
+        if (cidrs == null || cidrs.isEmpty()) {
+            return EMPTY;
+        }
+        Trie ipv4 = new Trie();
+        Trie ipv6 = new Trie();
+        int size = 0;
+        long[] bits = new long[2];
+        for (String cidr : cidrs) {
+            if (cidr == null || cidr.isBlank()) {
+                continue;
+            }
+            String text = cidr.trim();
+            int slash = text.indexOf('/');
+            int end = slash < 0 ? text.length() : slash;
+            long v4 = parseIpv4(text, 0, end);
+            boolean isIpv4 = v4 >= 0;
+            if (!isIpv4 && ipv6(text, 0, end, null, bits) != MATCH) {
+                throw new IllegalArgumentException("无法解析的地址段: " + cidr);
+            }
+            int maxLength = isIpv4 ? 32 : 128;
+            int prefix = maxLength;
+            if (slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(text.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("无法解析的地址段掩码: " + cidr, e);
+                }
+                if (prefix < 0 || prefix > maxLength) {
+                    throw new IllegalArgumentException("地址段掩码超出范围: " + cidr);
+                }
+            }
+            if (isIpv4) {
+                ipv4.insert(v4 << 32, 0L, prefix);
+            } else {
+                ipv6.insert(bits[0], bits[1], prefix);
+            }
+            size++;
+        }
+        return new CidrMatcher(ipv4.trim(), ipv6.trim(), size);
+    }
+
+    /**
+     * 判断地址是否在地址段内
+     *
+     * @param address 地址文本，可以为 null
+     * @return true 表示匹配，地址无法解析时返回 false
+     */
+    public boolean matches(CharSequence address) {
+        return address != null && match(address, 0, address.length()) == MATCH;
+    }
+
+    /**
+     * 匹配字符串指定区间内的地址，不创建子串
+     *
+     * @param text  文本
+     * @param start 地址起始位置（包含）
+     * @param end   地址结束位置（不包含）
+     * @return {@link #MATCH}、{@link #NO_MATCH} 或 {@link #INVALID}
+     */
+    public int match(CharSequence text, int start, int end) {
+        long v4 = parseIpv4(text, start, end);
+        if (v4 >= 0) {
+            return ipv4.matches(v4 << 32, 0L, 32) ? MATCH : NO_MATCH;
+        }
+        return ipv6(text, start, end, this, null);
+    }
+
+    /**
+     * 地址段数量
+     *
+     * @return 编译时有效的地址段数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 解析点分十进制的 IPv4 地址
+     *
+     * @return 32 位无符号地址，无法解析时返回 -1
+     */
+    private static long parseIpv4(CharSequence text, int start, int end) {
+        long value = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet < 0 ? c - '0' : octet * 10 + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                value = (value << 8) | octet;
+                octets++;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    /**
+     * 解析 IPv6 地址
+     * 解析结果只保存在局部变量中：matcher 不为 null 时直接匹配，否则写入 bits（仅编译时使用）
+     *
+     * @return 匹配结果，写入 bits 时成功返回 {@link #MATCH}
+     */
+    private static int ipv6(CharSequence text, int start, int end, CidrMatcher matcher, long[] bits) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+        if (end - start < 2) {
+            return INVALID;
+        }
+        // 压缩符 :: 之前的分组累加到 head，之后的分组累加到 tail，最后按分组数量拼接成 128 位
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headCount = 0, tailCount = 0;
+        boolean compressed = false;
+        int i = start;
+        if (text.charAt(i) == ':') {
+            if (text.charAt(i + 1) != ':') {
+                return INVALID;
+            }
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int group = 0;
+            while (i < end && text.charAt(i) != ':' && text.charAt(i) != '.') {
+                int digit = hex(text.charAt(i));
+                if (digit < 0 || i - groupStart >= 4) {
+                    return INVALID;
+                }
+                group = (group << 4) | digit;
+                i++;
+            }
+            int groups = 1;
+            if (i < end && text.charAt(i) == '.') {
+                // 末尾内嵌的 IPv4 地址占两个分组
+                long v4 = parseIpv4(text, groupStart, end);
+                if (v4 < 0) {
+                    return INVALID;
+                }
+                group = (int) v4;
+                groups = 2;
+                i = end;
+            } else if (i == groupStart) {
+                return INVALID;
+            }
+            int shift = groups * 16;
+            long mask = groups == 2 ? 0xFFFFFFFFL : 0xFFFFL;
+            if (compressed) {
+                tailHi = (tailHi << shift) | (tailLo >>> (64 - shift));
+                tailLo = (tailLo << shift) | (group & mask);
+                tailCount += groups;
+            } else {
+                headHi = (headHi << shift) | (headLo >>> (64 - shift));
+                headLo = (headLo << shift) | (group & mask);
+                headCount += groups;
+            }
+            if (headCount + tailCount > 8) {
+                return INVALID;
+            }
+            if (i < end) {
+                // 当前字符是 ':'
+                i++;
+                if (i < end && text.charAt(i) == ':') {
+                    if (compressed) {
+                        return INVALID;
+                    }
+                    compressed = true;
+                    i++;
+                } else if (i == end) {
+                    return INVALID;
+                }
+            }
+        }
+        int count = headCount + tailCount;
+        if (compressed ? count > 7 : count != 8) {
+            return INVALID;
+        }
+        // head 左移到高位，tail 留在低位
+        int shift = (8 - headCount) * 16;
+        long hi;
+        long lo;
+        if (shift == 0) {
+            hi = headHi;
+            lo = headLo;
+        } else if (shift >= 128) {
+            hi = 0;
+            lo = 0;
+        } else if (shift >= 64) {
+            hi = headLo << (shift - 64);
+            lo = 0;
+        } else {
+            hi = (headHi << shift) | (headLo >>> (64 - shift));
+            lo = headLo << shift;
+        }
+        hi |= tailHi;
+        lo |= tailLo;
+        if (matcher == null) {
+            bits[0] = hi;
+            bits[1] = lo;
+            return MATCH;
+        }
+        if (hi == 0 && (lo >>> 32) == 0xFFFFL) {
+            return matcher.ipv4.matches(lo << 32, 0L, 32) ? MATCH : NO_MATCH;
+        }
+        return matcher.ipv6.matches(hi, lo, 128) ? MATCH : NO_MATCH;
+    }
+
+    private static int hex(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * 按位组织的二叉前缀树，节点保存在数组中，0 号节点是根节点，子节点编号为 0 表示没有子节点
+     */
+    private static final class Trie {
+
+        private int[] zero = new int[16];
+        private int[] one = new int[16];
+        private boolean[] terminal = new boolean[16];
+        private int count = 1;
+
+        private static int bit(long hi, long lo, int index) {
+            return (int) (index < 64 ? (hi >>> (63 - index)) & 1 : (lo >>> (127 - index)) & 1);
+        }
+
+        void insert(long hi, long lo, int prefix) {
+            int node = 0;
+            for (int i = 0; i < prefix && !terminal[node]; i++) {
+                boolean isZero = bit(hi, lo, i) == 0;
+                int child = isZero ? zero[node] : one[node];
+                if (child == 0) {
+                    // newNode 可能扩容数组，先分配再写入
+                    child = newNode();
+                    if (isZero) {
+                        zero[node] = child;
+                    } else {
+                        one[node] = child;
+                    }
+                }
+                node = child;
+            }
+            // 更短的地址段已经覆盖时无需再标记
+            terminal[node] = true;
+        }
+
+        private int newNode() {
+            if (count == terminal.length) {
+                int capacity = count * 2;
+                zero = Arrays.copyOf(zero, capacity);
+                one = Arrays.copyOf(one, capacity);
+                terminal = Arrays.copyOf(terminal, capacity);
+            }
+            return count++;
+        }
+
+        Trie trim() {
+            zero = Arrays.copyOf(zero, count);
+            one = Arrays.copyOf(one, count);
+            terminal = Arrays.copyOf(terminal, count);
+            return this;
+        }
+
+        boolean matches(long hi, long lo, int length) {
+            int node = 0;
+            for (int i = 0; i < length; i++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                node = bit(hi, lo, i) == 0 ? zero[node] : one[node];
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return terminal[node];
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package cn.chenlijian.little.common.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * 客户端 IP 解析器
+ * 只有直连地址属于可信代理时才读取转发头，优先使用 RFC 7239 的 {@code Forwarded}，没有时使用 {@code X-Forwarded-For}。
+ * 转发头从右向左逐个检查：跳过可信代理的地址，遇到的第一个不可信地址就是客户端地址；全部可信时取最左边的地址。
+ * 某一跳的值无法解析（例如 {@code unknown}、{@code _hidden}）时无法继续追溯，返回最后一个可信的地址。
+ * <p>
+ * 转发头在原字符串上按下标扫描，不拆分数组、不使用正则，只在返回转发头中的地址时创建一个子串。
+ * 解析结果连同解析器保存在请求属性 {@link #ATTRIBUTE} 中，同一请求中日志、安全等组件使用同一个解析器重复获取时直接复用；
+ * 可信代理配置不同的解析器（例如 {@link #DEFAULT} 和按配置创建的解析器）不会读到彼此的结果。
+ * 实例不可变，是线程安全的。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class ClientIpResolver {
+
+    /**
+     * 保存解析结果的请求属性，值包含解析器和解析结果
+     */
+    public static final String ATTRIBUTE = ClientIpResolver.class.getName() + ".CLIENT_IP";
+
+    /**
+     * 默认的可信代理：回环地址、私有地址和链路本地地址
+     */
+    public static final List<String> DEFAULT_TRUSTED_PROXIES = List.of("127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12",
+            "192.168.0.0/16", "169.254.0.0/16", "::1/128", "fc00::/7", "fe80::/10");
+
+    /**
+     * 使用默认可信代理的解析器
+     */
+    public static final ClientIpResolver DEFAULT = of(DEFAULT_TRUSTED_PROXIES);
+
+    private static final String FORWARDED = "Forwarded";
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    /**
+     * 区间用一个 long 表示，高 32 位是起始位置，低 32 位是结束位置，避免创建对象；EMPTY 表示空区间
+     */
+    private static final long EMPTY = -1L;
+
+    private final CidrMatcher trustedProxies;
+
+    public ClientIpResolver(CidrMatcher trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    /**
+     * 根据可信代理地址段创建解析器
+     *
+     * @param trustedProxies 可信代理地址段，为空时不信任任何转发头
+     * @return 解析器
+     * @throws IllegalArgumentException 地址段格式错误
+     */
+    public static ClientIpResolver of(Collection<String> trustedProxies) {
+        return new ClientIpResolver(CidrMatcher.compile(trustedProxies));
+    }
+
+    /**
+     * 获取客户端 IP，同一请求中只解析一次
+     *
+     * @param request 请求
+     * @return 客户端 IP，无法获取时返回 null
+     */
+    public String resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(ATTRIBUTE);
+        if (cached instanceof Resolved resolved && resolved.resolver() == this) {
+            return resolved.ip();
+        }
+        String ip = doResolve(request);
+        if (ip != null) {
+            request.setAttribute(ATTRIBUTE, new Resolved(this, ip));
+        }
+        return ip;
+    }
+
+    /**
+     * 请求属性中保存的解析结果，只对解析出它的解析器有效
+     */
+    private record Resolved(ClientIpResolver resolver, String ip) {
+    }
+
+    private String doResolve(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (remote == null || remote.isEmpty() || !trustedProxies.matches(remote)) {
+            return remote;
+        }
+        boolean rfc7239 = true;
+        String header = joinHeaders(request.getHeaders(FORWARDED));
+        if (header == null) {
+            rfc7239 = false;
+            header = joinHeaders(request.getHeaders(X_FORWARDED_FOR));
+        }
+        return header == null ? remote : walk(header, rfc7239, remote);
+    }
+
+    /**
+     * 同名请求头出现多次时按顺序用逗号连接，与单个请求头中的逗号分隔等价
+     */
+    private static String joinHeaders(Enumeration<String> headers) {
+        if (headers == null || !headers.hasMoreElements()) {
+            return null;
+        }
+        String first = headers.nextElement();
+        if (!headers.hasMoreElements()) {
+            return first;
+        }
+        StringBuilder joined = new StringBuilder(first);
+        while (headers.hasMoreElements()) {
+            joined.append(',').append(headers.nextElement());
+        }
+        return joined.toString();
+    }
+
+    /**
+     * 从右向左检查转发头中的每一跳
+     */
+    private String walk(String header, boolean rfc7239, String remote) {
+        int lastStart = -1;
+        int lastEnd = -1;
+        int end = header.length();
+        while (end >= 0) {
+            int separator = previousSeparator(header, end);
+            long span = rfc7239 ? forValue(header, separator + 1, end) : trim(header, separator + 1, end);
+            end = separator;
+            if (span == EMPTY) {
+                continue;
+            }
+            span = stripPort(header, start(span), end(span));
+            int start = start(span);
+            int stop = end(span);
+            int result = span == EMPTY ? CidrMatcher.INVALID : trustedProxies.match(header, start, stop);
+            if (result == CidrMatcher.NO_MATCH) {
+                return header.substring(start, stop);
+            }
+            if (result == CidrMatcher.INVALID) {
+                break;
+            }
+            lastStart = start;
+            lastEnd = stop;
+        }
+        return lastStart < 0 ? remote : header.substring(lastStart, lastEnd);
+    }
+
+    private static long span(int start, int end) {
+        return start >= end ? EMPTY : ((long) start << 32) | end;
+    }
+
+    private static int start(long span) {
+        return (int) (span >>> 32);
+    }
+
+    private static int end(long span) {
+        return (int) span;
+    }
+
+    /**
+     * 查找 end 之前最近的、不在引号内的逗号
+     *
+     * @return 逗号位置，没有时返回 -1
+     */
+    private static int previousSeparator(String header, int end) {
+        boolean quoted = false;
+        for (int i = end - 1; i >= 0; i--) {
+            char c = header.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long trim(String header, int start, int end) {
+        while (start < end && header.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && header.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return span(start, end);
+    }
+
+    /**
+     * 取出 Forwarded 中一个元素的 for 参数值，例如 {@code for=192.0.2.60;proto=http;by=203.0.113.43}
+     */
+    private static long forValue(String header, int start, int end) {
+        int pairStart = start;
+        boolean quoted = false;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? header.charAt(i) : ';';
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ';' && !quoted) {
+                long pair = trim(header, pairStart, i);
+                if (pair != EMPTY) {
+                    int pairBegin = start(pair);
+                    int pairEnd = end(pair);
+                    if (pairEnd - pairBegin > 4 && header.regionMatches(true, pairBegin, "for=", 0, 4)) {
+                        int valueStart = pairBegin + 4;
+                        if (pairEnd - valueStart >= 2 && header.charAt(valueStart) == '"' && header.charAt(pairEnd - 1) == '"') {
+                            return span(valueStart + 1, pairEnd - 1);
+                        }
+                        return span(valueStart, pairEnd);
+                    }
+                }
+                pairStart = i + 1;
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * 去掉地址中的端口和 IPv6 的方括号：{@code [2001:db8::1]:4711}、{@code 192.0.2.60:8080}
+     */
+    private static long stripPort(String header, int start, int end) {
+        if (header.charAt(start) == '[') {
+            int close = header.indexOf(']', start);
+            return close < 0 || close >= end ? EMPTY : span(start + 1, close);
+        }
+        int colon = -1;
+        for (int i = start; i < end; i++) {
+            if (header.charAt(i) == ':') {
+                if (colon >= 0) {
+                    // 多个冒号是不带方括号的 IPv6 地址
+                    return span(start, end);
+                }
+                colon = i;
+            }
+        }
+        return colon < 0 ? span(start, end) : span(start, colon);
+    }
+}
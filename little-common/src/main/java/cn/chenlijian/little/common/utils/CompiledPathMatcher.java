@@ -0,0 +1,358 @@
+package cn.chenlijian.little.common.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的路径匹配器
+ * 启动时把一组 Ant 风格的路径模式编译为按路径段组织的前缀树，匹配时沿请求路径逐段查找，
+ * 纯字面量的模式只需一次哈希查找，不再对每个模式逐一调用 {@code AntPathMatcher.match}。
+ * 匹配结果按请求路径缓存在有界的 {@link ConcurrentHashMap} 中，读取不加锁，高频路径直接命中缓存；
+ * 缓存写满后每次写入随机淘汰一个旧的结果，不维护访问顺序。
+ * <p>
+ * 支持的语法与 Spring Security {@code requestMatchers(String)} 一致：
+ * <ul>
+ *     <li>{@code ?} 匹配一个字符</li>
+ *     <li>{@code *} 匹配一个路径段内的零个或多个字符</li>
+ *     <li>{@code **} 匹配零个或多个路径段</li>
+ *     <li>{@code {name}} 匹配一个路径段，{@code {name:regex}} 匹配满足正则的路径段</li>
+ * </ul>
+ * 路径区分大小写，连续的 {@code /} 视为一个；末尾的 {@code /} 有意义，{@code /a/} 只能被以 {@code /} 或 {@code /**} 结尾的模式匹配，
+ * 以及与 {@code AntPathMatcher} 相同，被最后一段为单独 {@code *} 的模式匹配（{@code /a/*} 匹配 {@code /a/}，{@code /*} 匹配 {@code /}）。
+ * 实例是线程安全的。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class CompiledPathMatcher {
+
+    /**
+     * 默认的匹配结果缓存容量
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static final CompiledPathMatcher EMPTY = new CompiledPathMatcher(new Node(), 0, 0);
+
+    private static final String DOUBLE_WILDCARD = "**";
+
+    private final Node root;
+    private final int patternCount;
+    private final int cacheSize;
+    private final Map<String, Boolean> cache;
+
+    private CompiledPathMatcher(Node root, int patternCount, int cacheSize) {
+        this.root = root;
+        this.patternCount = patternCount;
+        this.cacheSize = cacheSize;
+        this.cache = cacheSize > 0 ? new ConcurrentHashMap<>(Math.min(cacheSize, 256)) : null;
+    }
+
+    /**
+     * 编译路径模式，使用默认的缓存容量
+     *
+     * @param patterns 路径模式，可以为 null
+     * @return 路径匹配器
+     */
+    public static CompiledPathMatcher compile(Collection<String> patterns) {
+        return compile(patterns, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * 编译路径模式
+     *
+     * @param patterns  路径模式，可以为 null
+     * @param cacheSize 匹配结果缓存容量，小于等于 0 表示不缓存
+     * @return 路径匹配器
+     */
+    public static CompiledPathMatcher compile(Collection<String> patterns, int cacheSize) {
+        if (patterns == null || patterns.isEmpty()) {
+            return EMPTY;
+        }
+        Node root = new Node();
+        int count = 0;
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.isBlank()) {
+                continue;
+            }
+            insert(root, pattern.trim());
+            count++;
+        }
+        return count == 0 ? EMPTY : new CompiledPathMatcher(root, count, cacheSize);
+    }
+
+    /**
+     * 判断路径是否匹配任一模式
+     *
+     * @param path 请求路径，例如 {@code request.getRequestURI()}
+     * @return true 表示匹配
+     */
+    public boolean matches(String path) {
+        if (patternCount == 0 || path == null) {
+            return false;
+        }
+        if (cache == null) {
+            return doMatch(path);
+        }
+        Boolean cached = cache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        boolean matched = doMatch(path);
+        evictIfFull();
+        cache.put(path, matched);
+        return matched;
+    }
+
+    /**
+     * 缓存写满时淘汰任意的缓存项，直到低于容量；并发写入时缓存大小可能短暂超过容量
+     */
+    private void evictIfFull() {
+        Iterator<String> keys = cache.keySet().iterator();
+        while (cache.size() >= cacheSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * 是否没有任何模式
+     *
+     * @return true 表示没有模式，{@link #matches(String)} 始终返回 false
+     */
+    public boolean isEmpty() {
+        return patternCount == 0;
+    }
+
+    private boolean doMatch(String path) {
+        boolean absolute = path.startsWith("/");
+        Node start = absolute ? root.absolute : root.relative;
+        if (start == null) {
+            return false;
+        }
+        String[] segments = tokenize(path);
+        if (segments.length == 0 && absolute && start.star != null && start.star.terminal) {
+            // 与 AntPathMatcher 相同，/* 匹配 /
+            return true;
+        }
+        return match(start, segments, 0, path.length() > 1 && path.endsWith("/"), false);
+    }
+
+    /**
+     * @param afterDoubleWildcard 是否已经经过 ** 节点，AntPathMatcher 只在经过 ** 之前让末尾的 * 匹配空路径段
+     */
+    private static boolean match(Node node, String[] segments, int index, boolean trailingSlash, boolean afterDoubleWildcard) {
+        if (index == segments.length) {
+            if (trailingSlash ? node.terminalWithSlash : node.terminal) {
+                return true;
+            }
+            // 与 AntPathMatcher 相同，路径以 / 结尾时模式剩下的最后一段 * 匹配空路径段，例如 /a/* 匹配 /a/
+            if (trailingSlash && !afterDoubleWildcard && node.star != null && node.star.terminal) {
+                return true;
+            }
+            // ** 可以匹配零个路径段
+            for (Node any = node.doubleWildcard; any != null; any = any.doubleWildcard) {
+                if (trailingSlash ? any.terminalWithSlash : any.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String segment = segments[index];
+        Node literal = node.literals.get(segment);
+        if (literal != null && match(literal, segments, index + 1, trailingSlash, afterDoubleWildcard)) {
+            return true;
+        }
+        for (WildcardChild child : node.wildcards) {
+            if (child.matches(segment) && match(child.node, segments, index + 1, trailingSlash, afterDoubleWildcard)) {
+                return true;
+            }
+        }
+        Node any = node.doubleWildcard;
+        if (any != null) {
+            // 模式以 ** 结尾时直接匹配剩余路径
+            if (any.terminal && any.terminalWithSlash) {
+                return true;
+            }
+            for (int i = index; i <= segments.length; i++) {
+                if (match(any, segments, i, trailingSlash, true)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void insert(Node root, String pattern) {
+        boolean absolute = pattern.startsWith("/");
+        Node node = absolute ? root.absoluteNode() : root.relativeNode();
+        String[] segments = tokenize(pattern);
+        for (String segment : segments) {
+            if (DOUBLE_WILDCARD.equals(segment)) {
+                if (node.doubleWildcard == null) {
+                    node.doubleWildcard = new Node();
+                }
+                node = node.doubleWildcard;
+            } else if (isLiteral(segment)) {
+                node = node.literals.computeIfAbsent(segment, k -> new Node());
+            } else {
+                node = node.wildcardNode(segment);
+            }
+        }
+        if (segments.length > 0 && DOUBLE_WILDCARD.equals(segments[segments.length - 1])) {
+            node.terminal = true;
+            node.terminalWithSlash = true;
+        } else if (pattern.length() > 1 && pattern.endsWith("/")) {
+            node.terminalWithSlash = true;
+        } else {
+            node.terminal = true;
+        }
+    }
+
+    private static String[] tokenize(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把含通配符的路径段转换为正则表达式，规则与 {@code AntPathMatcher} 相同
+     */
+    private static Pattern toRegex(String segment) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        int i = 0;
+        while (i < segment.length()) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(segment.substring(literalStart, i)));
+                }
+                if (c == '*') {
+                    regex.append(".*");
+                    i++;
+                } else if (c == '?') {
+                    regex.append('.');
+                    i++;
+                } else {
+                    int end = closingBrace(segment, i);
+                    String variable = segment.substring(i + 1, end);
+                    int colon = variable.indexOf(':');
+                    regex.append('(').append(colon < 0 ? ".*" : variable.substring(colon + 1)).append(')');
+                    i = end + 1;
+                }
+                literalStart = i;
+            } else {
+                i++;
+            }
+        }
+        if (literalStart < segment.length()) {
+            regex.append(Pattern.quote(segment.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static int closingBrace(String segment, int open) {
+        int depth = 0;
+        for (int i = open; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("路径模式中的 '{' 没有闭合: " + segment);
+    }
+
+    /**
+     * 前缀树节点，每个节点对应一个路径段
+     */
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final List<WildcardChild> wildcards = new ArrayList<>();
+        private Node doubleWildcard;
+        /**
+         * 单独的 {@code *} 路径段对应的子节点，同时保存在 wildcards 中
+         */
+        private Node star;
+        private boolean terminal;
+        private boolean terminalWithSlash;
+        /**
+         * 仅根节点使用：以 / 开头和不以 / 开头的模式分别存放
+         */
+        private Node absolute;
+        private Node relative;
+
+        private Node absoluteNode() {
+            if (absolute == null) {
+                absolute = new Node();
+            }
+            return absolute;
+        }
+
+        private Node relativeNode() {
+            if (relative == null) {
+                relative = new Node();
+            }
+            return relative;
+        }
+
+        private Node wildcardNode(String segment) {
+            for (WildcardChild child : wildcards) {
+                if (child.segment.equals(segment)) {
+                    return child.node;
+                }
+            }
+            WildcardChild child = new WildcardChild(segment);
+            wildcards.add(child);
+            if ("*".equals(segment)) {
+                star = child.node;
+            }
+            return child.node;
+        }
+    }
+
+    /**
+     * 含通配符的路径段，单独的 {@code *} 或 {@code {name}} 匹配任意路径段，无需正则
+     */
+    private static final class WildcardChild {
+        private final String segment;
+        private final Pattern pattern;
+        private final Node node = new Node();
+
+        private WildcardChild(String segment) {
+            this.segment = segment;
+            boolean any = "*".equals(segment)
+                    || (segment.startsWith("{") && segment.endsWith("}") && segment.indexOf(':') < 0 && segment.indexOf('{', 1) < 0);
+            this.pattern = any ? null : toRegex(segment);
+        }
+
+        private boolean matches(String value) {
+            return pattern == null || pattern.matcher(value).matches();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package cn.chenlijian.little.common.utils;
 
 import cn.chenlijian.little.common.constant.ContextConstants;
 import cn.chenlijian.little.common.constant.StrPool;
+import cn.chenlijian.little.common.context.ContextHolder;
+import cn.chenlijian.little.common.context.LittleContext;
 import cn.hutool.core.convert.Convert;
 
 import java.util.HashMap;
@@ -10,6 +12,11 @@ import java.util.Map;
 /**
  * 上下文工具类
  * 获取当前线程变量中的用户id，用户昵称，账号等信息
+ * <p>
+ * 所有读取方法的优先级相同：先读取本类 ThreadLocal 中通过 {@link #set} 设置的值，没有时再读取 {@link ContextHolder} 绑定的不可变上下文，
+ * 后者按原始类型保存，{@link #getUserId()} 等方法读取时不做字符串转换。
+ * ThreadLocal 中的 Map 由 {@code ContextFilter} 在请求开始和结束时清理。
+ * 新代码建议使用 {@link ContextHolder}，绑定范围结束后自动清理。
  * @author chenlijian
  **/
 public final class ContextUtil {
@@ -33,10 +40,25 @@ public final class ContextUtil {
 
     public static String get(String key) {
         Map<String, String> context = getLocalContext();
-        if (context == null) {
-            return null;
+        String value = context == null ? null : context.get(key);
+        if (value != null) {
+            return value;
         }
-        return context.get(key);
+        return fromBoundContext(key);
+    }
+
+    /**
+     * 从 ContextHolder 绑定的上下文中读取，按字符串返回
+     */
+    private static String fromBoundContext(String key) {
+        LittleContext bound = ContextHolder.current();
+        Object value = switch (key) {
+            case ContextConstants.JWT_KEY_USER_ID -> bound.getUserId();
+            case ContextConstants.JWT_KEY_NAME -> bound.getUsername();
+            case ContextConstants.JWT_KEY_ACCOUNT -> bound.getAccount();
+            default -> bound.getAttributes().get(key);
+        };
+        return value == null ? null : value.toString();
     }
 
     public static void set(String key, Object value) {
@@ -65,6 +87,11 @@ public final class ContextUtil {
     }
 
     public static Long getUserId() {
+        Map<String, String> context = getLocalContext();
+        if (context == null || context.get(ContextConstants.JWT_KEY_USER_ID) == null) {
+            Long userId = ContextHolder.current().getUserId();
+            return userId == null ? 0L : userId;
+        }
         return get(ContextConstants.JWT_KEY_USER_ID, Long.class, 0L);
     }
 
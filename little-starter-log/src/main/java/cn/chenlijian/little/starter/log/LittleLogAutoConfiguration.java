@@ -1,22 +1,48 @@
 package cn.chenlijian.little.starter.log;
 
+import cn.chenlijian.little.common.context.ContextFilter;
+import cn.chenlijian.little.common.utils.ClientIpResolver;
 import cn.chenlijian.little.starter.log.aspect.ApiLogAspect;
+import cn.chenlijian.little.starter.log.codec.LogCodec;
+import cn.chenlijian.little.starter.log.codec.ProtostuffLogCodec;
+import cn.chenlijian.little.starter.log.expression.ApiLogExpressionEvaluator;
+import cn.chenlijian.little.starter.log.filter.RequestCachingFilter;
 import cn.chenlijian.little.starter.log.props.LittleLogProperties;
+import cn.chenlijian.little.starter.log.props.PublisherProperties;
 import cn.chenlijian.little.starter.log.props.SamplingProperties;
+import cn.chenlijian.little.starter.log.props.SpoolProperties;
+import cn.chenlijian.little.starter.log.publisher.BatchingLogPublisher;
 import cn.chenlijian.little.starter.log.publisher.DefaultLogPublisher;
 import cn.chenlijian.little.starter.log.publisher.LogPublisher;
+import cn.chenlijian.little.starter.log.publisher.disruptor.DisruptorLogPublisher;
 import cn.chenlijian.little.starter.log.sampling.SamplingStrategy;
 import cn.chenlijian.little.starter.log.sampling.strategy.ErrorForcedSamplingStrategy;
 import cn.chenlijian.little.starter.log.sampling.strategy.RandomSamplingStrategy;
+import cn.chenlijian.little.starter.log.sampling.strategy.RateLimitedSamplingStrategy;
+import cn.chenlijian.little.starter.log.sampling.strategy.TailSamplingStrategy;
+import cn.chenlijian.little.starter.log.sampling.strategy.TraceIdSamplingStrategy;
+import cn.chenlijian.little.starter.log.sink.LogSink;
+import cn.chenlijian.little.starter.log.sink.LogSinkMetrics;
+import cn.chenlijian.little.starter.log.sink.Slf4jLogSink;
+import cn.chenlijian.little.starter.log.spool.SpoolLogPublisher;
+import cn.chenlijian.little.starter.log.trace.ContextPropagatingTaskDecorator;
+import cn.chenlijian.little.starter.log.trace.TraceFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 
 /**
@@ -30,7 +56,8 @@ import org.springframework.scheduling.annotation.EnableAsync;
 @EnableAsync
 @ConditionalOnWebApplication
 @ConditionalOnProperty(prefix = LittleLogProperties.PREFIX, name = "enabled", havingValue = "true")
-@EnableConfigurationProperties({LittleLogProperties.class, SamplingProperties.class})
+@EnableConfigurationProperties({LittleLogProperties.class, SamplingProperties.class, PublisherProperties.class, SpoolProperties.class})
+@Import(RequestCachingFilter.class)
 public class LittleLogAutoConfiguration {
 
     @PostConstruct
@@ -46,11 +73,168 @@ public class LittleLogAutoConfiguration {
      *
      * @param properties   LittleLog属性配置，用于定制日志记录的行为和特性
      * @param logPublisher 日志发布者接口，用于将记录的日志信息发布到指定的目标
+     * @param expressionEvaluator 日志描述的SpEL表达式求值器
+     * @param clientIpResolver 客户端 IP 解析器
      * @return 返回配置好的ApiLogAspect切面实例
      */
     @Bean
-    public ApiLogAspect apiLogAspect(LittleLogProperties properties, LogPublisher logPublisher, SamplingStrategy samplingStrategy) {
-        return new ApiLogAspect(properties, logPublisher, samplingStrategy);
+    public ApiLogAspect apiLogAspect(LittleLogProperties properties, LogPublisher logPublisher, SamplingStrategy samplingStrategy,
+                                     ApiLogExpressionEvaluator expressionEvaluator, ClientIpResolver clientIpResolver) {
+        return new ApiLogAspect(properties, logPublisher, samplingStrategy, expressionEvaluator, clientIpResolver);
+    }
+
+    /**
+     * 创建并注册链路追踪过滤器，排在所有过滤器之前，后续过滤器和业务代码的日志都带有追踪 ID
+     * little.log.trace.enabled=false 时不生效
+     *
+     * @param properties LittleLog属性配置
+     * @return FilterRegistrationBean 包含过滤器注册信息的Bean
+     */
+    @Bean
+    public FilterRegistrationBean<TraceFilter> traceFilter(LittleLogProperties properties) {
+        FilterRegistrationBean<TraceFilter> registration = new FilterRegistrationBean<>(new TraceFilter(properties.getTraceIdKey()));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(properties.getTrace().isEnabled());
+        return registration;
+    }
+
+    /**
+     * 创建并注册请求上下文过滤器，排在链路追踪过滤器之后，请求开始和结束时清理 ContextUtil 的线程变量，
+     * 异步派发时恢复认证过滤器保存的上下文
+     * 安全模块也会注册同名的过滤器，容器中只保留一个
+     *
+     * @return FilterRegistrationBean 包含过滤器注册信息的Bean
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "contextFilter")
+    public FilterRegistrationBean<ContextFilter> contextFilter() {
+        FilterRegistrationBean<ContextFilter> registration = new FilterRegistrationBean<>(new ContextFilter());
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * 创建任务装饰器，把 MDC（包括追踪 ID）和 ContextUtil 上下文传递给 @Async 线程池和虚拟线程执行器
+     * 容器中已有 TaskDecorator 时不生效，可以在自定义的装饰器中组合使用
+     *
+     * @return TaskDecorator 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+
+    /**
+     * 创建客户端 IP 解析器，可信代理地址段在启动时编译一次
+     * 安全模块等其他组件也通过该 Bean 获取客户端 IP，同一请求中只解析一次
+     *
+     * @param properties LittleLog属性配置
+     * @return ClientIpResolver 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ClientIpResolver clientIpResolver(LittleLogProperties properties) {
+        return ClientIpResolver.of(properties.getClientIp().getTrustedProxies());
+    }
+
+    /**
+     * 创建日志描述的SpEL表达式求值器，解析后的表达式按方法缓存
+     *
+     * @param properties LittleLog属性配置
+     * @param metrics    管道指标，复用其指标注册中心
+     * @return ApiLogExpressionEvaluator 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ApiLogExpressionEvaluator apiLogExpressionEvaluator(LittleLogProperties properties, LogSinkMetrics metrics) {
+        return new ApiLogExpressionEvaluator(metrics.getRegistry(), properties.getSpelCompilerMode());
+    }
+
+    /**
+     * 创建默认的日志输出端，将日志转换为JSON字符串并打印
+     * 用户可以注册自定义的 LogSink Bean 替换默认实现，例如批量写入数据库
+     *
+     * @return LogSink 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LogSink defaultLogSink() {
+        return new Slf4jLogSink();
+    }
+
+    /**
+     * 创建日志输出管道指标，容器中没有 MeterRegistry 时使用内存中的注册中心
+     *
+     * @param meterRegistry 指标注册中心
+     * @return LogSinkMetrics 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LogSinkMetrics logSinkMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new LogSinkMetrics(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * 创建日志记录的二进制编解码器，用于本地落盘等需要紧凑编码的场景
+     *
+     * @return LogCodec 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LogCodec logCodec() {
+        return new ProtostuffLogCodec();
+    }
+
+    /**
+     * 创建基于内存映射段文件的落盘日志发布者
+     * 仅在 little.log.spool.enabled=true 时生效，优先于 little.log.publisher.type 的配置
+     *
+     * @param properties 落盘配置
+     * @param sink       日志输出端
+     * @param metrics    管道指标
+     * @param codec      日志编解码器
+     * @return LogPublisher 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = SpoolProperties.PREFIX, name = "enabled", havingValue = "true")
+    public LogPublisher spoolLogPublisher(SpoolProperties properties, LogSink sink, LogSinkMetrics metrics, LogCodec codec) {
+        return new SpoolLogPublisher(properties, sink, metrics, codec);
+    }
+
+    /**
+     * 创建基于 Disruptor 环形队列的日志发布者
+     * 仅在 little.log.publisher.type=disruptor 时生效
+     *
+     * @param properties 发布器配置
+     * @param sink       日志输出端
+     * @param metrics    管道指标
+     * @return LogPublisher 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = PublisherProperties.PREFIX, name = "type", havingValue = "disruptor")
+    public LogPublisher disruptorLogPublisher(PublisherProperties properties, LogSink sink, LogSinkMetrics metrics) {
+        return new DisruptorLogPublisher(properties, sink, metrics);
+    }
+
+    /**
+     * 创建批量日志发布者
+     * 仅在 little.log.publisher.type=batching 时生效
+     *
+     * @param properties 发布器配置
+     * @param sink       日志输出端
+     * @param metrics    管道指标
+     * @return LogPublisher 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = PublisherProperties.PREFIX, name = "type", havingValue = "batching")
+    public LogPublisher batchingLogPublisher(PublisherProperties properties, LogSink sink, LogSinkMetrics metrics) {
+        return new BatchingLogPublisher(properties, sink, metrics);
     }
 
     /**
@@ -58,28 +242,42 @@ public class LittleLogAutoConfiguration {
      * 该方法使用Spring框架的@Bean注解来声明一个Bean，使用@ConditionalOnMissingBean注解来确保只有在容器中没有其他同类型Bean时才创建该Bean
      * 这样做是为了避免Bean的重复创建，并提供了一种默认实现，当用户没有提供自定义实现时
      *
+     * @param sink 日志输出端
      * @return LogPublisher 实例，返回一个默认的日志发布者实现
      */
     @Bean
     @ConditionalOnMissingBean
-    public LogPublisher defaultLogPublisher() {
-        return new DefaultLogPublisher();
+    public LogPublisher defaultLogPublisher(LogSink sink) {
+        return new DefaultLogPublisher(sink);
     }
 
     /**
      * 配置默认的采样策略Bean
      * 该方法根据应用属性配置了一个采样策略，如果容器中没有其他SamplingStrategy bean存在，则创建一个
+     * strategy=rate-limited 时按每个接口每秒记录数的预算自适应采样，strategy=tail 时保留慢请求，
+     * strategy=trace 时按追踪ID一致采样，否则按固定比例随机采样
      *
      * @param properties 采样属性，包含了采样率等配置信息
+     * @param logProperties LittleLog属性配置，提供追踪ID的请求头
      * @return 返回一个根据配置初始化的采样策略对象
      */
     @Bean
     @ConditionalOnMissingBean
-    public SamplingStrategy defaultSamplingStrategy(SamplingProperties properties) {
-        // 创建一个随机采样策略实例
-        RandomSamplingStrategy strategy = new RandomSamplingStrategy();
-        // 设置采样率，决定采样的频率
-        strategy.setSampleRate(properties.getRate());
+    public SamplingStrategy defaultSamplingStrategy(SamplingProperties properties, LittleLogProperties logProperties) {
+        SamplingStrategy strategy;
+        if (properties.getStrategy() == SamplingProperties.Strategy.RATE_LIMITED) {
+            strategy = new RateLimitedSamplingStrategy(properties.getRateLimit());
+        } else if (properties.getStrategy() == SamplingProperties.Strategy.TAIL) {
+            strategy = new TailSamplingStrategy(properties.getTail());
+        } else if (properties.getStrategy() == SamplingProperties.Strategy.TRACE) {
+            strategy = new TraceIdSamplingStrategy(properties.getRate(), logProperties.getTraceIdKey());
+        } else {
+            // 创建一个随机采样策略实例
+            RandomSamplingStrategy randomStrategy = new RandomSamplingStrategy();
+            // 设置采样率，决定采样的频率
+            randomStrategy.setSampleRate(properties.getRate());
+            strategy = randomStrategy;
+        }
         // 返回一个错误强制采样策略，结合随机策略和配置，允许在某些情况下强制进行采样
         return new ErrorForcedSamplingStrategy(strategy, properties);
     }
@@ -1,34 +1,36 @@
 package cn.chenlijian.little.starter.log.aspect;
 
 import cn.chenlijian.little.common.biz.log.annotaion.ApiLog;
-import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.common.utils.ClientIpResolver;
+import cn.chenlijian.little.common.utils.CompiledPathMatcher;
 import cn.chenlijian.little.common.utils.ContextUtil;
-import cn.chenlijian.little.common.constant.StrPool;
+import cn.chenlijian.little.starter.log.capture.ApiLogSnapshot;
+import cn.chenlijian.little.starter.log.capture.BoundedCaptureRequestWrapper;
+import cn.chenlijian.little.starter.log.capture.BoundedCaptureResponseWrapper;
+import cn.chenlijian.little.starter.log.expression.ApiLogExpressionEvaluator;
 import cn.chenlijian.little.starter.log.props.LittleLogProperties;
 import cn.chenlijian.little.starter.log.publisher.LogPublisher;
 import cn.chenlijian.little.starter.log.sampling.SamplingStrategy;
 import cn.chenlijian.little.starter.log.utils.LogUtil;
 import cn.chenlijian.little.starter.log.utils.WebUtil;
-import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.util.StrUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.context.expression.MethodBasedEvaluationContext;
-import org.springframework.core.DefaultParameterNameDiscoverer;
-import org.springframework.expression.ParserContext;
-import org.springframework.expression.common.TemplateAwareExpressionParser;
-import org.springframework.expression.spel.SpelEvaluationException;
-import org.springframework.expression.spel.SpelParseException;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.WebUtils;
 
 import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AOP切面类，用于记录API日志
@@ -36,16 +38,38 @@ import java.lang.reflect.Method;
  */
 @Slf4j
 @Aspect
-@RequiredArgsConstructor
 public class ApiLogAspect {
 
     private static final int MAX_LENGTH = 65535;
-    private final TemplateAwareExpressionParser EXPRESSION_PARSER = new SpelExpressionParser();
-    private final DefaultParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
-    private final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
     private final LittleLogProperties properties;
     private final LogPublisher logPublisher;
     private final SamplingStrategy samplingStrategy;
+    private final ApiLogExpressionEvaluator expressionEvaluator;
+    /**
+     * 排除路径在启动时编译一次
+     */
+    private final CompiledPathMatcher excludePathMatcher;
+    private final ClientIpResolver clientIpResolver;
+    /**
+     * 传给采样策略的接口名，按方法缓存
+     */
+    private final Map<Method, String> endpointNames = new ConcurrentHashMap<>();
+
+    public ApiLogAspect(LittleLogProperties properties, LogPublisher logPublisher, SamplingStrategy samplingStrategy,
+                        ApiLogExpressionEvaluator expressionEvaluator) {
+        this(properties, logPublisher, samplingStrategy, expressionEvaluator,
+                ClientIpResolver.of(properties.getClientIp().getTrustedProxies()));
+    }
+
+    public ApiLogAspect(LittleLogProperties properties, LogPublisher logPublisher, SamplingStrategy samplingStrategy,
+                        ApiLogExpressionEvaluator expressionEvaluator, ClientIpResolver clientIpResolver) {
+        this.properties = properties;
+        this.logPublisher = logPublisher;
+        this.samplingStrategy = samplingStrategy;
+        this.expressionEvaluator = expressionEvaluator;
+        this.excludePathMatcher = CompiledPathMatcher.compile(properties.getExcludePaths());
+        this.clientIpResolver = clientIpResolver;
+    }
 
     /**
      * 环绕通知，用于记录API日志
@@ -56,7 +80,17 @@ public class ApiLogAspect {
      */
     @Around("@annotation(apiLog)")
     public Object around(ProceedingJoinPoint point, ApiLog apiLog) throws Throwable {
-        Long start = System.currentTimeMillis();
+        // 如果注解标记为不启用，直接执行目标方法
+        if (!apiLog.enabled()) {
+            return point.proceed();
+        }
+        // 请求头中没有追踪ID时生成一个，在响应写出前放入响应头
+        HttpServletRequest currentRequest = WebUtil.getRequest();
+        if (currentRequest != null) {
+            LogUtil.propagateTraceId(currentRequest, WebUtil.getResponse(), properties.getTraceIdKey());
+        }
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         Object result = null;
         Throwable throwable = null;
         try {
@@ -65,14 +99,23 @@ public class ApiLogAspect {
             throwable = t;
         } finally {
             // 不管是否抛出异常，end 时间都在最后统一记录
-            Long end = System.currentTimeMillis();
+            long end = System.currentTimeMillis();
+            long durationNanos = System.nanoTime() - startNanos;
             HttpServletRequest request = WebUtil.getRequest();
-            HttpServletResponse response = WebUtil.getResponse();
-            boolean hasError = throwable != null;
-            // 只有需要记录日志时才构造并发布日志
-            if (check(request, apiLog) && shouldRecordLog(request, hasError)) {
-                ApiLogDTO logDTO = buildApiLogDTO(point, apiLog, request, response, result, throwable, start, end);
-                logPublisher.publish(logDTO);
+            // 先做排除路径和采样判断，未通过的请求不再读取响应和构造日志
+            if (check(request) && shouldRecordLog(request, throwable != null, point, durationNanos)) {
+                HttpServletResponse response = WebUtil.getResponse();
+                ApiLogSnapshot.ApiLogSnapshotBuilder builder = capture(point, apiLog, request, response, result, throwable, start, end);
+                BoundedCaptureResponseWrapper responseCapture = getResponseCapture(request, response, point);
+                // 处理器方法的响应体在方法返回后才写出，等响应写完后再发布日志
+                if (responseCapture == null || !responseCapture.defer(capture -> publish(builder
+                        .responseStatus(capture.getStatus())
+                        .responseBytes(capture.getCapturedBytes())
+                        .responseTruncated(capture.isTruncated())
+                        .responseSize(capture.getSize())
+                        .build()))) {
+                    publish(builder.build());
+                }
             }
 
             // 如果有异常，重新抛出
@@ -84,125 +127,109 @@ public class ApiLogAspect {
         return result;
     }
 
-    private boolean shouldRecordLog(HttpServletRequest request, boolean hasError) {
-        return samplingStrategy.shouldSample(request, hasError);
+    private void publish(ApiLogSnapshot snapshot) {
+        if (properties.getCaptureMode() == LittleLogProperties.CaptureMode.LAZY) {
+            logPublisher.publish(snapshot);
+        } else {
+            logPublisher.publish(snapshot.materialize());
+        }
     }
 
     /**
-     * 构建ApiLogDTO对象
+     * 获取响应体采集包装器，只有 bytes、summary 模式下的处理器方法才延迟到响应写完后发布
+     */
+    private BoundedCaptureResponseWrapper getResponseCapture(HttpServletRequest request, HttpServletResponse response, ProceedingJoinPoint point) {
+        if (response == null || properties.getResponseBody().getMode() == LittleLogProperties.ResponseBodyMode.TO_STRING) {
+            return null;
+        }
+        // 只有被调用的方法就是当前请求的处理器方法时，写出的响应体才是它的返回值
+        Method method = ((MethodSignature) point.getSignature()).getMethod();
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)
+                || !handler.getMethod().equals(method)) {
+            return null;
+        }
+        return WebUtils.getNativeResponse(response, BoundedCaptureResponseWrapper.class);
+    }
+
+    /**
+     * 采样判断，把方法名和执行耗时传给采样策略，供按耗时采样的策略使用
+     */
+    private boolean shouldRecordLog(HttpServletRequest request, boolean hasError, ProceedingJoinPoint point, long durationNanos) {
+        Method method = ((MethodSignature) point.getSignature()).getMethod();
+        String endpoint = endpointNames.computeIfAbsent(method, ClassUtils::getQualifiedMethodName);
+        return samplingStrategy.shouldSample(request, hasError, endpoint, durationNanos);
+    }
+
+    /**
+     * 在请求线程中采集日志快照
+     * 只读取必须在请求线程中获取的值（请求头、请求体缓存、线程上下文中的用户信息等），其余转换由快照延迟完成
      * @param joinPoint 切入点
      * @param apiLog ApiLog注解
      * @param request HTTP请求
+     * @param response HTTP响应
      * @param result 方法执行结果
      * @param e 方法执行过程中抛出的异常
      * @param start 开始时间
      * @param end 结束时间
-     * @return 构建好的ApiLogDTO对象
+     * @return 日志快照构造器，响应信息可以在响应写完后补充
      */
-    private ApiLogDTO buildApiLogDTO(ProceedingJoinPoint joinPoint, ApiLog apiLog, HttpServletRequest request, HttpServletResponse response,
-                                     Object result, Throwable e, Long start, Long end) {
-        ApiLogDTO apiLogDTO = new ApiLogDTO();
-
+    private ApiLogSnapshot.ApiLogSnapshotBuilder capture(ProceedingJoinPoint joinPoint, ApiLog apiLog, HttpServletRequest request, HttpServletResponse response,
+                                   Object result, Throwable e, long start, long end) {
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        Object[] args = joinPoint.getArgs();
-
-        String className = joinPoint.getTarget().getClass().getName();
-        String methodName = signature.getName();
-
-        // ========== 基础信息 ==========
-        // 从请求头或上下文中获取 Trace ID
-        String traceId = LogUtil.getTraceId(request, properties.getTraceIdKey());
-        apiLogDTO.setTraceId(traceId);
-
-        // ========== 请求信息 ==========
-        LogUtil.addRequestInfoToLog(request, apiLogDTO);
-
-        apiLogDTO.setRequestTime(start);
-        apiLogDTO.setRequestBody(getText(WebUtil.getRequestContent(request)));
-        apiLogDTO.setClassPath(className);
-        apiLogDTO.setActionMethod(methodName);
-
-        // ========== 响应信息 ==========
-        apiLogDTO.setResponseTime(end);
-        apiLogDTO.setResponseBody(getText(String.valueOf(result)));
-        apiLogDTO.setResponseStatus(response.getStatus());
-
-        // ========== 业务信息 ==========
-        // 描述信息（支持SpEL表达式）
-        String description = parseSpelExpression(apiLog.value(), method, args);
-        apiLogDTO.setDescription(description);
-        apiLogDTO.setUsername(ContextUtil.getUsername());
-        apiLogDTO.setUserId(ContextUtil.getUserId());
-
-        // ========== 系统信息 ==========
-        if (e != null) {
-            apiLogDTO.setErrorMessage(e.getMessage());
-            apiLogDTO.setErrorStack(ExceptionUtil.stacktraceToString(e, MAX_LENGTH));
-        }
-
-        return apiLogDTO;
-    }
-
-    /**
-     * 解析SpEL表达式
-     * @param expression 表达式
-     * @param method 方法
-     * @param args 方法参数
-     * @return 解析后的字符串
-     */
-    private String parseSpelExpression(String expression, Method method, Object[] args) {
-        if (StrUtil.isBlank(expression)) {
-            return "";
-        }
-
-        // 如果不是 SpEL 模板格式（即没有 #{...}），直接返回原值
-        if (!expression.contains("#{")) {
-            return expression;
+        ApiLogSnapshot.ApiLogSnapshotBuilder builder = ApiLogSnapshot.builder()
+                .maxLength(MAX_LENGTH)
+                .evaluator(expressionEvaluator)
+                // 从请求头中获取 Trace ID
+                .traceId(LogUtil.getTraceId(request, properties.getTraceIdKey()))
+                .httpMethod(request.getMethod())
+                .requestUri(request.getRequestURI())
+                .clientIp(clientIpResolver.resolve(request))
+                .userAgent(request.getHeader(WebUtil.USER_AGENT_HEADER))
+                .requestTime(start)
+                .responseStatus(response == null ? 0 : response.getStatus())
+                .result(result)
+                .responseMode(properties.getResponseBody().getMode())
+                .responseTime(end)
+                .targetClass(joinPoint.getTarget().getClass())
+                .method(signature.getMethod())
+                .args(joinPoint.getArgs())
+                .expression(apiLog.value())
+                .username(ContextUtil.getUsername())
+                .userId(ContextUtil.getUserId())
+                .throwable(e);
+
+        String queryString = request.getQueryString();
+        builder.queryString(queryString);
+        // 没有查询字符串时才拷贝表单参数，参数表会随请求对象一起被容器回收
+        if (StrUtil.isBlank(queryString)) {
+            Map<String, String[]> parameters = request.getParameterMap();
+            if (!parameters.isEmpty()) {
+                builder.parameters(new LinkedHashMap<>(parameters));
+            }
         }
-
-        try {
-            MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(expression, method, args, PARAMETER_NAME_DISCOVERER);
-
-            // 使用 TemplateAwareExpressionParser 支持混合表达式解析
-            return EXPRESSION_PARSER.parseExpression(expression, ParserContext.TEMPLATE_EXPRESSION).getValue(context, String.class);
-        } catch (SpelEvaluationException ex) {
-            log.warn("SpEL 表达式解析失败: {}, 错误详情: {}", expression, ex.getMessage());
-            return "[SpEL Error]";
-        } catch (SpelParseException ex) {
-            log.warn("SpEL 表达式格式错误: {}", expression, ex);
-            return "[Invalid SpEL]";
-        } catch (Exception ex) {
-            log.error("解析表达式失败: {}", expression, ex);
-            return StrPool.EMPTY;
+        // 请求体只从采集包装器中获取，处理器执行完后再读取原始输入流要么为空，要么会把未消费的大请求体整个读入内存
+        BoundedCaptureRequestWrapper capture = WebUtils.getNativeRequest(request, BoundedCaptureRequestWrapper.class);
+        if (capture != null) {
+            builder.body(capture.getCapturedBytes()).bodyTruncated(capture.isTruncated());
+        } else {
+            ContentCachingRequestWrapper caching = WebUtils.getNativeRequest(request, ContentCachingRequestWrapper.class);
+            if (caching != null) {
+                builder.body(caching.getContentAsByteArray());
+            }
         }
+        return builder;
     }
 
     /**
      * 检查是否需要记录日志
-     * @param apiLog ApiLog注解
+     * @param request HTTP请求
      * @return true 表示需要记录日志
      */
-    private boolean check(HttpServletRequest request, ApiLog apiLog) {
-        // 如果注解标记为不启用，直接返回 false
-        if (!apiLog.enabled()) {
-            return false;
-        }
-
+    private boolean check(HttpServletRequest request) {
         if (request == null) {
             return false;
         }
 
-        String requestUri = request.getRequestURI();
-        return properties.getExcludePaths().stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, requestUri));
-    }
-
-    /**
-     * 限制字符串长度
-     * @param val 字符串内容
-     * @return 限制长度后的字符串
-     */
-    private String getText(String val) {
-        return StrUtil.sub(val, 0, MAX_LENGTH);
+        return !excludePathMatcher.matches(request.getRequestURI());
     }
 }
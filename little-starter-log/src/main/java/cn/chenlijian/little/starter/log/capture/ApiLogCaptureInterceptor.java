@@ -0,0 +1,46 @@
+package cn.chenlijian.little.starter.log.capture;
+
+import cn.chenlijian.little.common.biz.log.annotaion.ApiLog;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 请求体采集拦截器
+ * 在处理器方法执行前判断是否带有启用的 {@link ApiLog} 注解，只有这些请求才开始采集请求体。
+ * 拦截器在参数解析之前执行，{@code @RequestBody} 等参数读取的请求体都能被采集。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class ApiLogCaptureInterceptor implements HandlerInterceptor {
+
+    /**
+     * 每个处理器方法是否需要采集，只判断一次
+     */
+    private final Map<Method, Boolean> captureCache = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && shouldCapture(handlerMethod.getMethod())) {
+            BoundedCaptureRequestWrapper wrapper = WebUtils.getNativeRequest(request, BoundedCaptureRequestWrapper.class);
+            if (wrapper != null) {
+                wrapper.arm();
+            }
+        }
+        return true;
+    }
+
+    private boolean shouldCapture(Method method) {
+        return captureCache.computeIfAbsent(method, m -> {
+            ApiLog apiLog = AnnotatedElementUtils.findMergedAnnotation(m, ApiLog.class);
+            return apiLog != null && apiLog.enabled();
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package cn.chenlijian.little.starter.log.capture;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.expression.ApiLogExpressionEvaluator;
+import cn.chenlijian.little.starter.log.props.LittleLogProperties;
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.URLUtil;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 接口日志快照
+ * 请求线程只保存构造日志所需的廉价引用（时间戳、方法、参数、返回值、请求头中的值等），
+ * 参数拼接、请求体解码、SpEL 描述求值、返回值转字符串、异常堆栈展开等耗时操作在 {@link #materialize()} 中完成，
+ * 可以推迟到日志发布线程中执行，且只对通过采样的请求执行。
+ * <p>
+ * 请求对象会被容器回收复用，因此快照中不能持有 HttpServletRequest 本身，只能持有从中读取出的值。
+ * 方法参数和返回值按引用保存，若业务代码在方法返回后继续修改这些对象，日志中看到的是修改后的内容。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Getter
+@Builder
+public class ApiLogSnapshot {
+
+    /**
+     * 请求体被截断时追加的标记
+     */
+    private static final String TRUNCATED_SUFFIX = "...(truncated)";
+
+    private final int maxLength;
+    private final ApiLogExpressionEvaluator evaluator;
+
+    // ========== 请求信息 ==========
+    private final String traceId;
+    private final String httpMethod;
+    private final String requestUri;
+    private final String queryString;
+    /**
+     * 表单参数，仅在没有查询字符串时采集
+     */
+    private final Map<String, String[]> parameters;
+    /**
+     * 请求体原始字节，来自 BoundedCaptureRequestWrapper 或 ContentCachingRequestWrapper，最多为配置的上限
+     */
+    private final byte[] body;
+    /**
+     * 请求体是否超过采集上限而被截断
+     */
+    private final boolean bodyTruncated;
+    private final String clientIp;
+    private final String userAgent;
+    private final long requestTime;
+
+    // ========== 响应信息 ==========
+    private final int responseStatus;
+    private final Object result;
+    /**
+     * 响应体记录方式，为 null 时按 to_string 处理
+     */
+    private final LittleLogProperties.ResponseBodyMode responseMode;
+    /**
+     * 实际写出的响应体字节，最多为配置的上限，仅 bytes 模式且由过滤器采集时有值
+     */
+    private final byte[] responseBytes;
+    /**
+     * 响应体是否超过采集上限而被截断
+     */
+    private final boolean responseTruncated;
+    /**
+     * 实际写出的响应体字节数，-1 表示未知
+     */
+    @Builder.Default
+    private final long responseSize = -1;
+    private final long responseTime;
+
+    // ========== 方法信息 ==========
+    private final Class<?> targetClass;
+    private final Method method;
+    private final Object[] args;
+    private final String expression;
+
+    // ========== 业务信息 ==========
+    private final String username;
+    private final Long userId;
+
+    // ========== 系统信息 ==========
+    private final Throwable throwable;
+
+    /**
+     * 是否发生异常
+     *
+     * @return true 表示发生异常
+     */
+    public boolean hasError() {
+        return throwable != null;
+    }
+
+    /**
+     * 根据快照构造完整的日志记录
+     *
+     * @return 日志记录
+     */
+    public ApiLogDTO materialize() {
+        ApiLogDTO apiLogDTO = new ApiLogDTO();
+
+        // ========== 基础信息 ==========
+        apiLogDTO.setTraceId(traceId);
+
+        // ========== 请求信息 ==========
+        apiLogDTO.setHttpMethod(httpMethod);
+        apiLogDTO.setRequestPath(URLUtil.getPath(requestUri));
+        apiLogDTO.setRequestParams(requestParams());
+        apiLogDTO.setClientIp(clientIp);
+        apiLogDTO.setUserAgent(userAgent);
+        apiLogDTO.setRequestTime(requestTime);
+        apiLogDTO.setRequestBody(text(requestBody()));
+        apiLogDTO.setClassPath(targetClass.getName());
+        apiLogDTO.setActionMethod(method.getName());
+
+        // ========== 响应信息 ==========
+        apiLogDTO.setResponseTime(responseTime);
+        apiLogDTO.setResponseBody(text(responseBody()));
+        apiLogDTO.setResponseStatus(responseStatus);
+
+        // ========== 业务信息 ==========
+        apiLogDTO.setDescription(evaluator.evaluate(expression, method, args));
+        apiLogDTO.setUsername(username);
+        apiLogDTO.setUserId(userId);
+
+        // ========== 系统信息 ==========
+        if (throwable != null) {
+            apiLogDTO.setErrorMessage(throwable.getMessage());
+            apiLogDTO.setErrorStack(ExceptionUtil.stacktraceToString(throwable, maxLength));
+        }
+        return apiLogDTO;
+    }
+
+    /**
+     * 拼接请求参数：优先使用查询字符串，否则拼接表单参数
+     */
+    private String requestParams() {
+        if (StrUtil.isNotBlank(queryString)) {
+            return new String(queryString.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8).replaceAll("&amp;", "&").replaceAll("%22", "\"");
+        }
+        if (parameters == null || parameters.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String[]> entry : parameters.entrySet()) {
+            String[] values = entry.getValue();
+            sb.append(entry.getKey()).append("=").append(values == null || values.length == 0 ? null : values[0]).append("&");
+        }
+        return StrUtil.removeSuffix(sb.toString(), "&").replaceAll("&amp;", "&");
+    }
+
+    private String requestBody() {
+        if (body == null || body.length == 0) {
+            return "";
+        }
+        String text = new String(body, StandardCharsets.UTF_8);
+        return bodyTruncated ? text + TRUNCATED_SUFFIX : text;
+    }
+
+    private String responseBody() {
+        if (responseMode == null || responseMode == LittleLogProperties.ResponseBodyMode.TO_STRING) {
+            return String.valueOf(result);
+        }
+        if (responseMode == LittleLogProperties.ResponseBodyMode.BYTES && responseBytes != null) {
+            String text = new String(responseBytes, StandardCharsets.UTF_8);
+            return responseTruncated ? text + TRUNCATED_SUFFIX : text;
+        }
+        // summary 模式，或 bytes 模式下没有经过响应采集（例如非处理器方法），只记录类型和大小
+        String type = result == null ? "null" : result.getClass().getName();
+        return responseSize < 0 ? "{type=" + type + "}" : "{type=" + type + ", bytes=" + responseSize + "}";
+    }
+
+    private String text(String val) {
+        return StrUtil.sub(val, 0, maxLength);
+    }
+}
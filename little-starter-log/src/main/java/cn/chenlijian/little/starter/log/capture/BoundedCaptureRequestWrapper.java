@@ -0,0 +1,180 @@
+package cn.chenlijian.little.starter.log.capture;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 有上限的请求体采集包装器
+ * 与 {@code ContentCachingRequestWrapper} 不同，只有调用 {@link #arm()} 之后读取的数据才会被复制，
+ * 且最多复制前 maxBytes 个字节到池化的缓冲区中，超出部分只透传不保存。
+ * 请求体仍然由业务代码按原样读取，包装器不会主动读取或预读请求体。
+ * <p>
+ * 包装器只在一个请求线程中使用，不是线程安全的。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class BoundedCaptureRequestWrapper extends HttpServletRequestWrapper {
+
+    private final CaptureBufferPool pool;
+    private final int maxBytes;
+
+    private byte[] buffer;
+    private int length;
+    private boolean truncated;
+    private boolean armed;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+
+    /**
+     * 构造函数
+     *
+     * @param request 原始请求
+     * @param pool    缓冲区池，缓冲区大小即采集上限
+     */
+    public BoundedCaptureRequestWrapper(HttpServletRequest request, CaptureBufferPool pool) {
+        super(request);
+        this.pool = pool;
+        this.maxBytes = pool.getBufferSize();
+    }
+
+    /**
+     * 开始采集，之后读取的请求体会被复制到缓冲区中
+     */
+    public void arm() {
+        if (!armed) {
+            armed = true;
+            buffer = pool.acquire();
+        }
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new CapturingInputStream(super.getInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+        return reader;
+    }
+
+    /**
+     * 获取已采集的请求体
+     *
+     * @return 已采集字节的拷贝，未开始采集时返回 null
+     */
+    public byte[] getCapturedBytes() {
+        return buffer == null ? null : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * 请求体是否超过采集上限
+     *
+     * @return true 表示已采集的内容被截断
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * 归还缓冲区，由过滤器在请求结束时调用
+     */
+    public void release() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+            length = 0;
+        }
+    }
+
+    private void capture(int b) {
+        if (buffer == null) {
+            return;
+        }
+        if (length < maxBytes) {
+            buffer[length++] = (byte) b;
+        } else {
+            truncated = true;
+        }
+    }
+
+    private void capture(byte[] bytes, int offset, int count) {
+        if (buffer == null || count <= 0) {
+            return;
+        }
+        int copy = Math.min(count, maxBytes - length);
+        if (copy > 0) {
+            System.arraycopy(bytes, offset, buffer, length, copy);
+            length += copy;
+        }
+        if (copy < count) {
+            truncated = true;
+        }
+    }
+
+    /**
+     * 读取时把数据同时复制到采集缓冲区的输入流
+     */
+    private final class CapturingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+
+        private CapturingInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b != -1) {
+                capture(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int len) throws IOException {
+            int count = delegate.read(bytes, offset, len);
+            capture(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int readLine(byte[] bytes, int offset, int len) throws IOException {
+            int count = delegate.readLine(bytes, offset, len);
+            capture(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            delegate.setReadListener(listener);
+        }
+    }
+}
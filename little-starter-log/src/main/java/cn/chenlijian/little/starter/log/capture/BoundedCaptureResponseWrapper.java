@@ -0,0 +1,219 @@
+package cn.chenlijian.little.starter.log.capture;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * 有上限的响应体采集包装器
+ * 消息转换器（例如 Jackson）写出响应时，把前 maxBytes 个字节复制到池化的缓冲区中，同时统计写出的总字节数，
+ * 记录的是实际发送给客户端的内容，不需要再次序列化返回值。
+ * <p>
+ * 只有调用 {@link #defer(Consumer)} 之后才会借用缓冲区并开始复制；缓冲区池为 null 时只统计字节数。
+ * 响应写完后由过滤器调用 {@link #complete()}，依次执行回调并归还缓冲区。
+ * 包装器只在一个请求中使用，不是线程安全的。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class BoundedCaptureResponseWrapper extends HttpServletResponseWrapper {
+
+    private final CaptureBufferPool pool;
+    private final int maxBytes;
+
+    private byte[] buffer;
+    private int length;
+    private long size;
+    private boolean truncated;
+    private Consumer<BoundedCaptureResponseWrapper> callback;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * 构造函数
+     *
+     * @param response 原始响应
+     * @param pool     缓冲区池，缓冲区大小即采集上限；为 null 时只统计字节数，不保存内容
+     */
+    public BoundedCaptureResponseWrapper(HttpServletResponse response, CaptureBufferPool pool) {
+        super(response);
+        this.pool = pool;
+        this.maxBytes = pool == null ? 0 : pool.getBufferSize();
+    }
+
+    /**
+     * 开始采集，并在响应写完后执行回调
+     * 同一请求中只保留第一个回调，嵌套的 {@code @ApiLog} 方法不会重复登记
+     *
+     * @param callback 响应写完后的回调
+     * @return false 表示已有回调，本次登记被忽略
+     */
+    public boolean defer(Consumer<BoundedCaptureResponseWrapper> callback) {
+        if (this.callback != null) {
+            return false;
+        }
+        this.callback = callback;
+        if (pool != null) {
+            buffer = pool.acquire();
+        }
+        return true;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding);
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    /**
+     * 获取已采集的响应体
+     *
+     * @return 已采集字节的拷贝，未开始采集或只统计字节数时返回 null
+     */
+    public byte[] getCapturedBytes() {
+        return buffer == null ? null : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * 获取已写出的响应体总字节数
+     *
+     * @return 字节数
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 响应体是否超过采集上限
+     *
+     * @return true 表示已采集的内容被截断
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * 响应写完后调用：刷新字符输出流，执行回调，归还缓冲区
+     */
+    public void complete() {
+        if (writer != null) {
+            writer.flush();
+        }
+        Consumer<BoundedCaptureResponseWrapper> pending = callback;
+        callback = null;
+        try {
+            if (pending != null) {
+                pending.accept(this);
+            }
+        } catch (RuntimeException e) {
+            log.warn("响应写完后的日志回调执行失败", e);
+        } finally {
+            if (buffer != null) {
+                pool.release(buffer);
+                buffer = null;
+                length = 0;
+            }
+        }
+    }
+
+    private void capture(int b) {
+        size++;
+        if (buffer == null) {
+            return;
+        }
+        if (length < maxBytes) {
+            buffer[length++] = (byte) b;
+        } else {
+            truncated = true;
+        }
+    }
+
+    private void capture(byte[] bytes, int offset, int count) {
+        size += count;
+        if (buffer == null) {
+            return;
+        }
+        int copy = Math.min(count, maxBytes - length);
+        if (copy > 0) {
+            System.arraycopy(bytes, offset, buffer, length, copy);
+            length += copy;
+        }
+        if (copy < count) {
+            truncated = true;
+        }
+    }
+
+    /**
+     * 写出时把数据同时复制到采集缓冲区的输出流
+     */
+    private final class CapturingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private CapturingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            capture(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int len) throws IOException {
+            delegate.write(bytes, offset, len);
+            capture(bytes, offset, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package cn.chenlijian.little.starter.log.capture;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 请求体采集缓冲区池
+ * 缓冲区大小固定为采集上限，归还后供后续请求复用；池满时归还的缓冲区直接丢弃，借出时池空则新分配
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class CaptureBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * 构造函数
+     *
+     * @param bufferSize 缓冲区大小
+     * @param maxPooled  池中最多保留的缓冲区数量
+     */
+    public CaptureBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * 借出一个缓冲区
+     *
+     * @return 缓冲区，内容未清零
+     */
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        if (buffer != null) {
+            pooled.decrementAndGet();
+            return buffer;
+        }
+        return new byte[bufferSize];
+    }
+
+    /**
+     * 归还缓冲区
+     *
+     * @param buffer 通过 {@link #acquire()} 借出的缓冲区
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null || buffer.length != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,137 @@
+package cn.chenlijian.little.starter.log.codec;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.hutool.json.JSONUtil;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 手写的 JSON 编解码实现
+ * 编码时按字段声明顺序直接拼接字符串，不经过反射，值为 null 的字段不输出，输出内容与 Hutool
+ * {@code JSONUtil.toJsonStr} 保持一致（包括 U+2028、U+2029 等字符的 Unicode 转义）。拼接使用线程本地的 {@link StringBuilder}，避免每条记录扩容。
+ * 解码不在热点路径上，直接交给 Hutool 处理。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class JsonLogCodec implements LogCodec {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 线程本地缓冲区保留的最大容量，超过后丢弃重建，避免个别大请求体长期占用内存
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    @Override
+    public byte[] encode(ApiLogDTO record) {
+        return toJson(record).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public ApiLogDTO decode(byte[] data) {
+        return JSONUtil.toBean(new String(data, StandardCharsets.UTF_8), ApiLogDTO.class);
+    }
+
+    /**
+     * 把日志记录转换为 JSON 字符串
+     *
+     * @param record 日志记录
+     * @return JSON 字符串
+     */
+    public String toJson(ApiLogDTO record) {
+        StringBuilder sb = BUILDER.get();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            sb = new StringBuilder(1024);
+            BUILDER.set(sb);
+        }
+        sb.setLength(0);
+        sb.append('{');
+        int start = sb.length();
+        string(sb, start, "traceId", record.getTraceId());
+        string(sb, start, "httpMethod", record.getHttpMethod());
+        string(sb, start, "requestPath", record.getRequestPath());
+        string(sb, start, "requestParams", record.getRequestParams());
+        string(sb, start, "requestBody", record.getRequestBody());
+        string(sb, start, "clientIp", record.getClientIp());
+        string(sb, start, "userAgent", record.getUserAgent());
+        number(sb, start, "requestTime", record.getRequestTime());
+        number(sb, start, "responseStatus", record.getResponseStatus());
+        string(sb, start, "responseBody", record.getResponseBody());
+        string(sb, start, "classPath", record.getClassPath());
+        string(sb, start, "actionMethod", record.getActionMethod());
+        number(sb, start, "responseTime", record.getResponseTime());
+        string(sb, start, "description", record.getDescription());
+        string(sb, start, "username", record.getUsername());
+        number(sb, start, "userId", record.getUserId());
+        number(sb, start, "processingTime", record.getProcessingTime());
+        string(sb, start, "errorMessage", record.getErrorMessage());
+        string(sb, start, "errorStack", record.getErrorStack());
+        return sb.append('}').toString();
+    }
+
+    private static void name(StringBuilder sb, int start, String name) {
+        if (sb.length() > start) {
+            sb.append(',');
+        }
+        sb.append('"').append(name).append("\":");
+    }
+
+    private static void number(StringBuilder sb, int start, String name, Number value) {
+        if (value == null) {
+            return;
+        }
+        name(sb, start, name);
+        sb.append(value);
+    }
+
+    private static void number(StringBuilder sb, int start, String name, long value) {
+        name(sb, start, name);
+        sb.append(value);
+    }
+
+    private static void string(StringBuilder sb, int start, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        name(sb, start, name);
+        sb.append('"');
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (needsUnicodeEscape(c)) {
+                        sb.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xF])
+                                .append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * 与 Hutool {@code JSONUtil} 转义的字符范围相同：控制字符、C1 控制字符和不换行空格、
+     * 各种宽度的空格和连字符、行分隔符 U+2028 和段分隔符 U+2029、双向文本控制字符
+     */
+    private static boolean needsUnicodeEscape(char c) {
+        if (c < 0x80) {
+            // ASCII 只需一次比较
+            return c < 0x20;
+        }
+        return c <= 0xa0
+                || (c >= 0x2000 && c <= 0x2010)
+                || (c >= 0x2028 && c <= 0x202f)
+                || (c >= 0x2066 && c <= 0x206f);
+    }
+}
@@ -0,0 +1,29 @@
+package cn.chenlijian.little.starter.log.codec;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+
+/**
+ * 日志记录编解码接口
+ * 用于把 {@link ApiLogDTO} 转换为字节数组，供落盘、网络传输或打印使用
+ * 实现类必须是线程安全的
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public interface LogCodec {
+
+    /**
+     * 编码日志记录
+     *
+     * @param record 日志记录
+     * @return 编码后的字节数组
+     */
+    byte[] encode(ApiLogDTO record);
+
+    /**
+     * 解码日志记录
+     *
+     * @param data 编码后的字节数组
+     * @return 日志记录
+     */
+    ApiLogDTO decode(byte[] data);
+}
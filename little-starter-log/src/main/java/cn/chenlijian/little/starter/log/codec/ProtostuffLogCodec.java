@@ -0,0 +1,44 @@
+package cn.chenlijian.little.starter.log.codec;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+
+/**
+ * 基于 protostuff 的二进制编解码实现
+ * Schema 在类加载时生成一次，编码时复用线程本地的 {@link LinkedBuffer}，避免每条记录分配新的缓冲区。
+ * 编码结果紧凑且不含字段名，适合落盘和网络传输，但字段顺序与 {@link ApiLogDTO} 的声明顺序绑定，
+ * 新增字段只能追加在末尾。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class ProtostuffLogCodec implements LogCodec {
+
+    private static final Schema<ApiLogDTO> SCHEMA = RuntimeSchema.getSchema(ApiLogDTO.class);
+
+    /**
+     * 初始缓冲区大小，覆盖大多数不含大请求体的日志，超出时 protostuff 会自动追加缓冲段
+     */
+    private static final int BUFFER_SIZE = 1024;
+
+    private static final ThreadLocal<LinkedBuffer> BUFFER = ThreadLocal.withInitial(() -> LinkedBuffer.allocate(BUFFER_SIZE));
+
+    @Override
+    public byte[] encode(ApiLogDTO record) {
+        LinkedBuffer buffer = BUFFER.get();
+        try {
+            return ProtostuffIOUtil.toByteArray(record, SCHEMA, buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public ApiLogDTO decode(byte[] data) {
+        ApiLogDTO record = SCHEMA.newMessage();
+        ProtostuffIOUtil.mergeFrom(data, record, SCHEMA);
+        return record;
+    }
+}
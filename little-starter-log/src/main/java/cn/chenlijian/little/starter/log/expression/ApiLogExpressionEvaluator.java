@@ -0,0 +1,218 @@
+package cn.chenlijian.little.starter.log.expression;
+
+import cn.hutool.core.util.StrUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.TemplateAwareExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelParseException;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code @ApiLog} 描述信息的 SpEL 表达式求值器
+ * 描述支持模板格式，例如 {@code "查询用户 #{#id}"}，不包含 {@code #{} 时直接返回原值
+ * <p>
+ * 每个方法的描述只解析一次：解析后的表达式和方法参数名按 {@link Method} 缓存，静态描述缓存为字符串直接返回。
+ * 表达式首次求值成功后按配置的 {@link SpelCompilerMode} 编译为字节码，编译失败时继续以解释模式执行。
+ * 该类是线程安全的，可以在日志发布线程中调用
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class ApiLogExpressionEvaluator {
+
+    private static final String SPEL_ERROR = "[SpEL Error]";
+    private static final String INVALID_SPEL = "[Invalid SpEL]";
+
+    private final TemplateAwareExpressionParser parser;
+    private final SpelCompilerMode compilerMode;
+    private final DefaultParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<Method, CachedExpression> cache = new ConcurrentHashMap<>();
+
+    private final Counter cacheHit;
+    private final Counter cacheMiss;
+    private final Counter compileSuccess;
+    private final Counter compileFailure;
+
+    /**
+     * 构造函数
+     *
+     * @param registry     指标注册中心
+     * @param compilerMode SpEL 编译模式
+     */
+    public ApiLogExpressionEvaluator(MeterRegistry registry, SpelCompilerMode compilerMode) {
+        this.compilerMode = compilerMode;
+        this.parser = new SpelExpressionParser(new SpelParserConfiguration(compilerMode, getClass().getClassLoader()));
+        this.cacheHit = Counter.builder("little.log.spel.cache").tag("result", "hit")
+                .description("日志描述表达式缓存命中次数").register(registry);
+        this.cacheMiss = Counter.builder("little.log.spel.cache").tag("result", "miss")
+                .description("日志描述表达式缓存未命中次数").register(registry);
+        this.compileSuccess = Counter.builder("little.log.spel.compile").tag("result", "success")
+                .description("日志描述表达式编译成功次数").register(registry);
+        this.compileFailure = Counter.builder("little.log.spel.compile").tag("result", "failure")
+                .description("日志描述表达式编译失败次数").register(registry);
+    }
+
+    /**
+     * 解析SpEL表达式
+     *
+     * @param expression 表达式
+     * @param method     方法
+     * @param args       方法参数
+     * @return 解析后的字符串
+     */
+    public String evaluate(String expression, Method method, Object[] args) {
+        if (StrUtil.isBlank(expression)) {
+            return "";
+        }
+
+        // 如果不是 SpEL 模板格式（即没有 #{...}），直接返回原值
+        if (!expression.contains("#{")) {
+            return expression;
+        }
+
+        CachedExpression cached = cache.get(method);
+        if (cached != null && cached.source.equals(expression)) {
+            cacheHit.increment();
+        } else {
+            cacheMiss.increment();
+            cached = parse(expression, method);
+            cache.put(method, cached);
+        }
+        if (cached.expression == null) {
+            return cached.staticValue;
+        }
+
+        try {
+            String value = cached.expression.getValue(cached.createContext(args), String.class);
+            if (!cached.compileAttempted) {
+                compile(cached);
+            }
+            return value;
+        } catch (SpelEvaluationException ex) {
+            log.warn("SpEL 表达式解析失败: {}, 错误详情: {}", expression, ex.getMessage());
+            return SPEL_ERROR;
+        } catch (Exception ex) {
+            log.error("解析表达式失败: {}", expression, ex);
+            return "";
+        }
+    }
+
+    /**
+     * 解析表达式并发现方法参数名，解析失败时缓存错误占位符，避免每次调用都重复解析
+     */
+    private CachedExpression parse(String expression, Method method) {
+        try {
+            Expression parsed = parser.parseExpression(expression, ParserContext.TEMPLATE_EXPRESSION);
+            return new CachedExpression(expression, parsed, null, variableNames(method));
+        } catch (SpelParseException ex) {
+            log.warn("SpEL 表达式格式错误: {}", expression, ex);
+            return new CachedExpression(expression, null, INVALID_SPEL, null);
+        } catch (Exception ex) {
+            log.error("解析表达式失败: {}", expression, ex);
+            return new CachedExpression(expression, null, "", null);
+        }
+    }
+
+    /**
+     * 首次求值成功后尝试编译表达式，编译依赖首次求值时收集的类型信息
+     * 并发调用时可能重复编译，结果相同，不影响正确性
+     */
+    private void compile(CachedExpression cached) {
+        cached.compileAttempted = true;
+        if (compilerMode == SpelCompilerMode.OFF) {
+            return;
+        }
+        boolean compiled = true;
+        for (SpelExpression part : spelParts(cached.expression)) {
+            try {
+                compiled &= part.compileExpression();
+            } catch (RuntimeException ex) {
+                compiled = false;
+            }
+        }
+        if (compiled) {
+            compileSuccess.increment();
+        } else {
+            compileFailure.increment();
+            log.debug("SpEL 表达式无法编译，将以解释模式执行: {}", cached.source);
+        }
+    }
+
+    /**
+     * 预先计算每个参数可用的变量名：参数名（编译时保留了参数名才有）、a0、p0
+     */
+    private String[][] variableNames(Method method) {
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+        String[][] names = new String[method.getParameterCount()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = parameterNames != null && i < parameterNames.length
+                    ? new String[]{parameterNames[i], "a" + i, "p" + i}
+                    : new String[]{"a" + i, "p" + i};
+        }
+        return names;
+    }
+
+    private static List<SpelExpression> spelParts(Expression expression) {
+        List<SpelExpression> parts = new ArrayList<>();
+        if (expression instanceof SpelExpression spel) {
+            parts.add(spel);
+        } else if (expression instanceof CompositeStringExpression composite) {
+            for (Expression part : composite.getExpressions()) {
+                if (part instanceof SpelExpression spel) {
+                    parts.add(spel);
+                }
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * 缓存的表达式，与方法一一对应
+     */
+    private static final class CachedExpression {
+        private final String source;
+        private final Expression expression;
+        private final String staticValue;
+        private final String[][] variableNames;
+        private volatile boolean compileAttempted;
+
+        private CachedExpression(String source, Expression expression, String staticValue, String[][] variableNames) {
+            this.source = source;
+            this.expression = expression;
+            this.staticValue = staticValue;
+            this.variableNames = variableNames;
+        }
+
+        /**
+         * 创建求值上下文，参数可以通过参数名、#a0 或 #p0 引用
+         */
+        private StandardEvaluationContext createContext(Object[] args) {
+            StandardEvaluationContext context = new StandardEvaluationContext();
+            if (args == null) {
+                return context;
+            }
+            for (int i = 0, len = Math.min(args.length, variableNames.length); i < len; i++) {
+                for (String name : variableNames[i]) {
+                    context.setVariable(name, args[i]);
+                }
+            }
+            return context;
+        }
+    }
+}
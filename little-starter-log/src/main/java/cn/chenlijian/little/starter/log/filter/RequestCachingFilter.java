@@ -1,51 +1,70 @@
 package cn.chenlijian.little.starter.log.filter;
 
+import cn.chenlijian.little.starter.log.capture.ApiLogCaptureInterceptor;
+import cn.chenlijian.little.starter.log.capture.CaptureBufferPool;
 import cn.chenlijian.little.starter.log.props.LittleLogProperties;
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
-import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-
-import java.io.IOException;
 
 /**
- * 请求缓存过滤器，用于缓存HTTP请求内容
- * 主要用途是记录请求信息，以便于日志记录和问题追踪
+ * 请求体和响应体采集配置
+ * 注册 {@link RequestCaptureFilter}、{@link ResponseCaptureFilter} 和 {@link ApiLogCaptureInterceptor}：
+ * 过滤器为请求和响应套上有上限的采集包装器，拦截器只为 {@code @ApiLog} 处理器开启请求体采集，其余请求不会复制任何数据
+ * <p>
+ * 只通过 {@code LittleLogAutoConfiguration} 的 {@code @Import} 引入，不能标注 {@code @Configuration}，
+ * 否则会被 mica-auto 注册为独立的自动配置，绕过日志模块的开关
  */
 @RequiredArgsConstructor
 @ConditionalOnProperty(prefix = LittleLogProperties.PREFIX, name = "enabled", havingValue = "true")
 public class RequestCachingFilter implements WebMvcConfigurer {
 
+    private final LittleLogProperties properties;
+
     /**
-     * 创建并注册请求缓存过滤器
-     * 该过滤器将包装HttpServletRequest对象，以实现请求内容的缓存
+     * 创建并注册请求体采集过滤器，little.log.request-body.enabled=false 时不生效
+     * 排在字符编码过滤器之后、Spring Security 之前，保证后续读取请求体的组件拿到的都是采集包装器
      *
      * @return FilterRegistrationBean 包含过滤器注册信息的Bean
      */
     @Bean
-    public FilterRegistrationBean<OncePerRequestFilter> requestCachingFilter() {
-        // 创建FilterRegistrationBean对象，用于注册过滤器
-        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>();
-        // 设置过滤器的具体逻辑
-        registration.setFilter(new OncePerRequestFilter() {
-            @Override
-            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
-                    throws ServletException, IOException {
-                // 使用ContentCachingRequestWrapper包装请求对象，以实现内容缓存
-                HttpServletRequest wrappedRequest = new ContentCachingRequestWrapper(request);
-                // 继续执行其他过滤器或目标方法
-                filterChain.doFilter(wrappedRequest, response);
-            }
-        });
-        // 添加URL模式，使该过滤器应用于所有请求
+    public FilterRegistrationBean<RequestCaptureFilter> requestCachingFilter() {
+        LittleLogProperties.RequestBody requestBody = properties.getRequestBody();
+        CaptureBufferPool pool = new CaptureBufferPool(Math.max(1, requestBody.getMaxBytes()), requestBody.getPoolSize());
+        FilterRegistrationBean<RequestCaptureFilter> registration = new FilterRegistrationBean<>(
+                new RequestCaptureFilter(pool, requestBody.getSkipContentTypes()));
         registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        registration.setEnabled(requestBody.isEnabled());
         return registration;
     }
+
+    /**
+     * 创建并注册响应体采集过滤器，仅在 little.log.response-body.mode 为 bytes 或 summary 时生效
+     * summary 模式只统计写出的字节数，不分配缓冲区
+     *
+     * @return FilterRegistrationBean 包含过滤器注册信息的Bean
+     */
+    @Bean
+    public FilterRegistrationBean<ResponseCaptureFilter> responseCaptureFilter() {
+        LittleLogProperties.ResponseBody responseBody = properties.getResponseBody();
+        CaptureBufferPool pool = responseBody.getMode() == LittleLogProperties.ResponseBodyMode.BYTES
+                ? new CaptureBufferPool(Math.max(1, responseBody.getMaxBytes()), responseBody.getPoolSize()) : null;
+        FilterRegistrationBean<ResponseCaptureFilter> registration = new FilterRegistrationBean<>(new ResponseCaptureFilter(pool));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        registration.setEnabled(responseBody.getMode() != LittleLogProperties.ResponseBodyMode.TO_STRING);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (properties.getRequestBody().isEnabled()) {
+            registry.addInterceptor(new ApiLogCaptureInterceptor());
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package cn.chenlijian.little.starter.log.filter;
+
+import cn.chenlijian.little.starter.log.capture.BoundedCaptureRequestWrapper;
+import cn.chenlijian.little.starter.log.capture.CaptureBufferPool;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 请求体采集过滤器
+ * 为可能带有文本请求体的请求套上 {@link BoundedCaptureRequestWrapper}，包装本身不分配缓冲区，
+ * 是否真正采集由 {@code ApiLogCaptureInterceptor} 在匹配到 {@code @ApiLog} 处理器后决定。
+ * 没有请求体或 Content-Type 属于跳过列表（文件上传、二进制内容）的请求不做包装。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class RequestCaptureFilter extends OncePerRequestFilter {
+
+    private final CaptureBufferPool pool;
+    private final List<String> skipContentTypes;
+
+    /**
+     * 构造函数
+     *
+     * @param pool             缓冲区池
+     * @param skipContentTypes 不采集的 Content-Type 前缀
+     */
+    public RequestCaptureFilter(CaptureBufferPool pool, List<String> skipContentTypes) {
+        this.pool = pool;
+        this.skipContentTypes = skipContentTypes == null ? List.of()
+                : skipContentTypes.stream().map(type -> type.toLowerCase(Locale.ROOT)).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isCapturable(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        BoundedCaptureRequestWrapper wrapper = new BoundedCaptureRequestWrapper(request, pool);
+        try {
+            filterChain.doFilter(wrapper, response);
+        } finally {
+            wrapper.release();
+        }
+    }
+
+    private boolean isCapturable(HttpServletRequest request) {
+        if (request.getContentLengthLong() == 0) {
+            return false;
+        }
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            // 没有 Content-Type 且没有声明长度的请求（例如 GET）通常没有请求体
+            return request.getContentLengthLong() > 0;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        for (String skip : skipContentTypes) {
+            if (type.startsWith(skip)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
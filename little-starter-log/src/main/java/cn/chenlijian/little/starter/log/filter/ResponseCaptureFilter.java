@@ -0,0 +1,75 @@
+package cn.chenlijian.little.starter.log.filter;
+
+import cn.chenlijian.little.starter.log.capture.BoundedCaptureResponseWrapper;
+import cn.chenlijian.little.starter.log.capture.CaptureBufferPool;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 响应体采集过滤器
+ * 为响应套上 {@link BoundedCaptureResponseWrapper}，包装本身不分配缓冲区，只有 {@code @ApiLog} 处理器登记回调后才开始采集。
+ * 响应写完后执行回调发布日志；异步请求在异步处理结束后再执行。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class ResponseCaptureFilter extends OncePerRequestFilter {
+
+    private final CaptureBufferPool pool;
+
+    /**
+     * 构造函数
+     *
+     * @param pool 缓冲区池，为 null 时只统计响应字节数
+     */
+    public ResponseCaptureFilter(CaptureBufferPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        BoundedCaptureResponseWrapper wrapper = new BoundedCaptureResponseWrapper(response, pool);
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(wrapper));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                wrapper.complete();
+            }
+        }
+    }
+
+    /**
+     * 异步请求结束后完成采集
+     */
+    private record CompletionListener(BoundedCaptureResponseWrapper wrapper) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            wrapper.complete();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
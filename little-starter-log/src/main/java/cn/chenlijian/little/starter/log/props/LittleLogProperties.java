@@ -1,7 +1,9 @@
 package cn.chenlijian.little.starter.log.props;
 
+import cn.chenlijian.little.common.utils.ClientIpResolver;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.expression.spel.SpelCompilerMode;
 
 import java.util.List;
 
@@ -39,4 +41,130 @@ public class LittleLogProperties {
      */
     private String traceIdKey = "X-Trace-ID";
 
+    /**
+     * 日志采集模式
+     * eager：在请求线程中构造完整的日志记录；lazy：请求线程只保存必要的引用，
+     * 参数拼接、请求体解码、SpEL 描述、响应体转换等耗时操作推迟到日志发布线程中执行
+     */
+    private CaptureMode captureMode = CaptureMode.EAGER;
+
+    /**
+     * 日志描述 SpEL 表达式的编译模式
+     * off：始终解释执行；immediate：首次求值后编译，编译后的表达式执行失败时抛出异常；
+     * mixed：首次求值后编译，执行失败时自动退回解释模式
+     */
+    private SpelCompilerMode spelCompilerMode = SpelCompilerMode.MIXED;
+
+    /**
+     * 请求体采集配置
+     */
+    private RequestBody requestBody = new RequestBody();
+
+    /**
+     * 响应体采集配置
+     */
+    private ResponseBody responseBody = new ResponseBody();
+
+    /**
+     * 客户端 IP 解析配置
+     */
+    private ClientIp clientIp = new ClientIp();
+
+    /**
+     * 链路追踪配置
+     */
+    private Trace trace = new Trace();
+
+    /**
+     * 日志采集模式
+     */
+    public enum CaptureMode {
+        EAGER,
+        LAZY
+    }
+
+    /**
+     * 请求体采集配置
+     * 只有进入 {@code @ApiLog} 方法的请求才会采集，读取请求体时把前 maxBytes 个字节复制到池化的缓冲区中，超出部分直接透传
+     */
+    @Data
+    public static class RequestBody {
+        /**
+         * 是否采集请求体
+         */
+        private boolean enabled = true;
+
+        /**
+         * 单个请求最多采集的字节数
+         */
+        private int maxBytes = 8192;
+
+        /**
+         * 缓冲区池中最多保留的缓冲区数量，超出后按需分配
+         */
+        private int poolSize = 64;
+
+        /**
+         * 不采集的 Content-Type 前缀，例如文件上传和二进制内容
+         */
+        private List<String> skipContentTypes = List.of("multipart/", "application/octet-stream", "application/zip",
+                "application/pdf", "image/", "audio/", "video/");
+    }
+
+    /**
+     * 响应体采集配置
+     */
+    @Data
+    public static class ResponseBody {
+        /**
+         * 响应体记录方式
+         */
+        private ResponseBodyMode mode = ResponseBodyMode.TO_STRING;
+
+        /**
+         * bytes 模式下单个响应最多采集的字节数
+         */
+        private int maxBytes = 8192;
+
+        /**
+         * 缓冲区池中最多保留的缓冲区数量，超出后按需分配
+         */
+        private int poolSize = 64;
+    }
+
+    /**
+     * 客户端 IP 解析配置
+     * 只有直连地址属于可信代理时才读取 Forwarded / X-Forwarded-For，并从右向左跳过可信代理的地址
+     */
+    @Data
+    public static class ClientIp {
+        /**
+         * 可信代理的地址段，例如 {@code 10.0.0.0/8}、{@code fc00::/7}；为空时不信任任何转发头，
+         * 配置 {@code 0.0.0.0/0} 和 {@code ::/0} 时信任所有转发头，取最左边的地址
+         */
+        private List<String> trustedProxies = ClientIpResolver.DEFAULT_TRUSTED_PROXIES;
+    }
+
+    /**
+     * 链路追踪配置
+     */
+    @Data
+    public static class Trace {
+        /**
+         * 是否注册追踪过滤器：读取或生成追踪 ID，写入响应头和 MDC 的 traceId
+         */
+        private boolean enabled = true;
+    }
+
+    /**
+     * 响应体记录方式
+     * to_string：对返回值调用 String.valueOf；bytes：记录消息转换器实际写出的前 maxBytes 个字节；
+     * summary：只记录返回值类型和写出的字节数
+     */
+    public enum ResponseBodyMode {
+        TO_STRING,
+        BYTES,
+        SUMMARY
+    }
+
 }
@@ -0,0 +1,91 @@
+package cn.chenlijian.little.starter.log.props;
+
+import cn.chenlijian.little.starter.log.publisher.disruptor.OverflowPolicy;
+import cn.chenlijian.little.starter.log.publisher.disruptor.WaitStrategyType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 日志发布器配置属性类，用于选择日志发布器实现及其运行参数
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Data
+@ConfigurationProperties(prefix = PublisherProperties.PREFIX)
+public class PublisherProperties {
+
+    /**
+     * 配置属性的前缀
+     */
+    public static final String PREFIX = "little.log.publisher";
+
+    /**
+     * 发布器类型
+     * default：基于 Spring @Async 的默认实现；disruptor：基于 LMAX Disruptor 环形队列的实现；
+     * batching：基于有界阻塞队列的批量实现
+     */
+    private PublisherType type = PublisherType.DEFAULT;
+
+    /**
+     * 环形队列容量，必须为 2 的幂，非 2 的幂时自动向上取整
+     */
+    private int ringBufferSize = 8192;
+
+    /**
+     * 批量发布器的队列容量，仅在 type 为 batching 时生效
+     */
+    private int queueCapacity = 8192;
+
+    /**
+     * 消费线程的等待策略
+     */
+    private WaitStrategyType waitStrategy = WaitStrategyType.BLOCKING;
+
+    /**
+     * 环形队列写满时的处理策略
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+    /**
+     * 降采样阈值，仅在 overflow-policy 为 sample-down 时生效
+     * 表示队列占用率超过该值后开始按剩余容量比例丢弃日志，例如 0.75 表示占用超过 75% 后开始降采样
+     */
+    private double sampleDownThreshold = 0.75;
+
+    /**
+     * 应用关闭时等待队列中日志处理完成的最长时间（毫秒）
+     */
+    private long shutdownTimeout = 5000;
+
+    /**
+     * 日志批次配置，disruptor 与 batching 发布器共用
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * 日志发布器类型
+     */
+    public enum PublisherType {
+        DEFAULT,
+        DISRUPTOR,
+        BATCHING
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * 单个批次的最大记录数
+         */
+        private int maxSize = 500;
+
+        /**
+         * 单个批次的最大估算字节数
+         */
+        private long maxBytes = 1024 * 1024;
+
+        /**
+         * 批次的最长等待时间（毫秒），到期后即使未达到上限也会写出
+         */
+        private long linger = 200;
+    }
+}
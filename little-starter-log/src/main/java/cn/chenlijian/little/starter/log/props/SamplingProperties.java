@@ -28,4 +28,94 @@ public class SamplingProperties {
      * 默认值为 true，表示在发生异常时总是记录日志，无论采样率如何
      */
     private Boolean includeError = true;
+
+    /**
+     * 采样策略
+     * random：按 rate 固定比例随机采样；rate-limited：按每个接口每秒记录数的预算自适应采样；
+     * tail：记录每个接口耗时超过分位数阈值的请求，快速请求按 tail.fast-rate 采样；
+     * trace：按追踪ID的哈希值与 rate 比较，调用链上各服务对同一链路的结论一致。rate-limited 和 tail 策略下 rate 不再生效
+     */
+    private Strategy strategy = Strategy.RANDOM;
+
+    /**
+     * rate-limited 策略的配置
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * tail 策略的配置
+     */
+    private Tail tail = new Tail();
+
+    /**
+     * 采样策略
+     */
+    public enum Strategy {
+        RANDOM,
+        RATE_LIMITED,
+        TAIL,
+        TRACE
+    }
+
+    /**
+     * 自适应限速采样配置
+     */
+    @Data
+    public static class RateLimit {
+        /**
+         * 每个接口每秒最多记录的条数
+         */
+        private double recordsPerSecond = 10;
+
+        /**
+         * 每个接口允许的突发条数，小于等于 0 时等于 recordsPerSecond
+         */
+        private double burst = 0;
+
+        /**
+         * 所有接口每秒最多记录的条数，小于等于 0 表示不限制
+         */
+        private double globalRecordsPerSecond = 0;
+
+        /**
+         * 单独统计的接口数量上限，超出后新接口共用一个桶
+         */
+        private int maxEndpoints = 1024;
+    }
+
+    /**
+     * 尾部采样配置
+     */
+    @Data
+    public static class Tail {
+        /**
+         * 慢请求阈值对应的耗时分位数
+         */
+        private double quantile = 0.99;
+
+        /**
+         * 耗时低于阈值的请求的采样率
+         */
+        private double fastRate = 0.01;
+
+        /**
+         * 接口样本数达到该值后才使用阈值，之前全部记录
+         */
+        private long minSamples = 100;
+
+        /**
+         * 重新计算阈值的间隔（毫秒）
+         */
+        private long refreshInterval = 1000;
+
+        /**
+         * 耗时计数减半的间隔（毫秒），越短越快跟随耗时分布的变化
+         */
+        private long decayInterval = 60000;
+
+        /**
+         * 单独统计的接口数量上限，超出后新接口共用一个统计
+         */
+        private int maxEndpoints = 1024;
+    }
 }
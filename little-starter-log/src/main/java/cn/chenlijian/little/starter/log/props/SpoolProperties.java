@@ -0,0 +1,60 @@
+package cn.chenlijian.little.starter.log.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 本地落盘缓冲配置属性类
+ * 启用后日志先写入本地内存映射文件，再由后台线程回放给日志输出端
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Data
+@ConfigurationProperties(prefix = SpoolProperties.PREFIX)
+public class SpoolProperties {
+
+    /**
+     * 配置属性的前缀
+     */
+    public static final String PREFIX = "little.log.spool";
+
+    /**
+     * 是否启用本地落盘缓冲，默认关闭
+     */
+    private boolean enabled = false;
+
+    /**
+     * 段文件存放目录
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/little-log-spool";
+
+    /**
+     * 单个段文件大小（字节），写满后滚动到新的段文件
+     */
+    private int segmentSize = 64 * 1024 * 1024;
+
+    /**
+     * 最多保留的段文件数量，达到上限后丢弃新日志，防止下游长时间不可用时占满磁盘
+     */
+    private int maxSegments = 16;
+
+    /**
+     * 后台回放线程无数据时的轮询间隔（毫秒）
+     */
+    private long drainInterval = 200;
+
+    /**
+     * 单次交给日志输出端的最大记录数
+     */
+    private int drainBatchSize = 500;
+
+    /**
+     * 输出端写出失败后的重试间隔（毫秒）
+     */
+    private long retryInterval = 1000;
+
+    /**
+     * 段文件滚动时是否强制刷盘，开启后可在操作系统崩溃时保留已滚动的段文件
+     */
+    private boolean forceOnRoll = true;
+}
@@ -0,0 +1,141 @@
+package cn.chenlijian.little.starter.log.publisher;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.capture.ApiLogSnapshot;
+import cn.chenlijian.little.starter.log.props.PublisherProperties;
+import cn.chenlijian.little.starter.log.sink.LogBatcher;
+import cn.chenlijian.little.starter.log.sink.LogSink;
+import cn.chenlijian.little.starter.log.sink.LogSinkMetrics;
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量日志发布者
+ * 请求线程把日志放入有界队列，由单个工作线程按记录数、字节数和等待时间聚合成批次后交给 {@link LogSink}
+ * 队列写满时直接丢弃新日志并计数，不会阻塞请求线程
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class BatchingLogPublisher implements LogPublisher, DisposableBean {
+
+    /**
+     * 待处理队列，元素为 {@link ApiLogDTO} 或 lazy 采集模式下的 {@link ApiLogSnapshot}
+     */
+    private final BlockingQueue<Object> queue;
+    private final LogBatcher batcher;
+    private final LogSinkMetrics metrics;
+    private final int drainSize;
+    private final long shutdownTimeout;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * 构造函数，创建并启动工作线程
+     *
+     * @param properties 发布器配置
+     * @param sink       日志输出端
+     * @param metrics    管道指标
+     */
+    public BatchingLogPublisher(PublisherProperties properties, LogSink sink, LogSinkMetrics metrics) {
+        PublisherProperties.Batch batch = properties.getBatch();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.batcher = new LogBatcher(sink, metrics, batch.getMaxSize(), batch.getMaxBytes(), batch.getLinger());
+        this.metrics = metrics;
+        this.drainSize = Math.max(1, batch.getMaxSize());
+        this.shutdownTimeout = properties.getShutdownTimeout();
+        Gauge.builder("little.log.publisher.queue.size", queue, BlockingQueue::size)
+                .description("批量日志发布者队列中等待处理的日志数")
+                .register(metrics.getRegistry());
+
+        this.worker = new Thread(this::runLoop, "little-log-batching");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 发布日志记录，队列已满时丢弃
+     *
+     * @param record 操作日志记录对象
+     */
+    @Override
+    public void publish(ApiLogDTO record) {
+        if (record != null && !queue.offer(record)) {
+            metrics.recordQueueFull();
+        }
+    }
+
+    /**
+     * 发布日志快照，日志记录由工作线程构造
+     *
+     * @param snapshot 日志快照
+     */
+    @Override
+    public void publish(ApiLogSnapshot snapshot) {
+        if (snapshot != null && !queue.offer(snapshot)) {
+            metrics.recordQueueFull();
+        }
+    }
+
+    /**
+     * 工作线程主循环：等待日志到达或批次到期，取出队列中已有的日志一并聚合
+     */
+    private void runLoop() {
+        List<Object> drained = new ArrayList<>(drainSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Object first = queue.poll(batcher.nanosUntilExpired(System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    add(first);
+                    queue.drainTo(drained, drainSize);
+                    for (Object element : drained) {
+                        add(element);
+                    }
+                    drained.clear();
+                }
+                batcher.flushIfExpired(System.nanoTime());
+            } catch (InterruptedException e) {
+                // 关闭时被中断，继续循环直到队列清空
+                running = false;
+            } catch (Exception e) {
+                log.error("批量日志发布者处理失败", e);
+            }
+        }
+        batcher.flush();
+    }
+
+    /**
+     * 把队列元素加入批次，快照在这里构造为日志记录，构造失败的记录直接跳过
+     */
+    private void add(Object element) {
+        if (element instanceof ApiLogSnapshot snapshot) {
+            try {
+                batcher.add(snapshot.materialize());
+            } catch (RuntimeException e) {
+                log.warn("构造日志记录失败，已跳过", e);
+            }
+        } else {
+            batcher.add((ApiLogDTO) element);
+        }
+    }
+
+    /**
+     * 应用关闭时写出队列中剩余的日志
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(shutdownTimeout);
+        if (worker.isAlive()) {
+            log.warn("Batching log publisher shutdown timed out, {} logs will be discarded.", queue.size());
+        }
+    }
+}
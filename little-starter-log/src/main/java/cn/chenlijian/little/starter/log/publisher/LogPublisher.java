@@ -1,6 +1,7 @@
 package cn.chenlijian.little.starter.log.publisher;
 
 import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.capture.ApiLogSnapshot;
 
 /**
  * 日志发布者接口
@@ -15,4 +16,14 @@ public interface LogPublisher {
      * @param record 操作日志记录对象，包含日志的相关信息
      */
     void publish(ApiLogDTO record);
+
+    /**
+     * 发布日志快照，用于 lazy 采集模式
+     * 默认在调用线程中构造日志记录后发布，异步实现可以覆盖该方法，把构造工作推迟到后台线程
+     *
+     * @param snapshot 日志快照
+     */
+    default void publish(ApiLogSnapshot snapshot) {
+        publish(snapshot.materialize());
+    }
 }
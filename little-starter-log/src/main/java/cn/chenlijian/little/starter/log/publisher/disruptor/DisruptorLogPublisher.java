@@ -0,0 +1,275 @@
+package cn.chenlijian.little.starter.log.publisher.disruptor;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.capture.ApiLogSnapshot;
+import cn.chenlijian.little.starter.log.props.PublisherProperties;
+import cn.chenlijian.little.starter.log.publisher.LogPublisher;
+import cn.chenlijian.little.starter.log.sink.LogBatcher;
+import cn.chenlijian.little.starter.log.sink.LogSink;
+import cn.chenlijian.little.starter.log.sink.LogSinkMetrics;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于 LMAX Disruptor 的异步日志发布者
+ * 请求线程只负责把日志写入预分配的环形队列，由单个消费线程聚合成批次后交给 {@link LogSink}
+ * 消费线程追上生产者（即 endOfBatch）时立即写出当前批次，负载越高批次越大
+ * 队列容量固定，写满时按 {@link OverflowPolicy} 处理，不会出现任务无限堆积
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class DisruptorLogPublisher implements LogPublisher, DisposableBean {
+
+    private static final EventTranslatorOneArg<LogEvent, ApiLogDTO> TRANSLATOR = (event, sequence, record) -> event.setRecord(record);
+    private static final EventTranslatorOneArg<LogEvent, ApiLogSnapshot> SNAPSHOT_TRANSLATOR = (event, sequence, snapshot) -> event.setSnapshot(snapshot);
+
+    /**
+     * drop-oldest 策略下等待消费线程腾出槽位的最大重试次数
+     */
+    private static final int DROP_OLDEST_RETRIES = 64;
+
+    private final Disruptor<LogEvent> disruptor;
+    private final RingBuffer<LogEvent> ringBuffer;
+    private final LogBatcher batcher;
+    private final LogSinkMetrics metrics;
+    private final OverflowPolicy overflowPolicy;
+    private final long shutdownTimeout;
+    /**
+     * 剩余容量低于该值时开始降采样
+     */
+    private final long sampleDownCapacity;
+    /**
+     * 等待消费线程丢弃的最旧日志数量，仅由生产者递增、消费线程递减
+     */
+    private final AtomicLong pendingDiscards = new AtomicLong();
+
+    /**
+     * 构造函数，创建并启动环形队列
+     *
+     * @param properties 发布器配置
+     * @param sink       日志输出端，在消费线程中同步调用
+     * @param metrics    管道指标
+     */
+    public DisruptorLogPublisher(PublisherProperties properties, LogSink sink, LogSinkMetrics metrics) {
+        PublisherProperties.Batch batch = properties.getBatch();
+        this.batcher = new LogBatcher(sink, metrics, batch.getMaxSize(), batch.getMaxBytes(), batch.getLinger());
+        this.metrics = metrics;
+        this.overflowPolicy = properties.getOverflowPolicy();
+        this.shutdownTimeout = properties.getShutdownTimeout();
+
+        int bufferSize = ceilingPowerOfTwo(properties.getRingBufferSize());
+        double threshold = Math.max(0.0, Math.min(1.0, properties.getSampleDownThreshold()));
+        this.sampleDownCapacity = Math.max(1L, (long) (bufferSize * (1.0 - threshold)));
+
+        this.disruptor = new Disruptor<>(LogEvent::new, bufferSize, new LogThreadFactory(),
+                ProducerType.MULTI, properties.getWaitStrategy().create());
+        this.disruptor.handleEventsWith(this::onEvent);
+        this.disruptor.setDefaultExceptionHandler(new LogExceptionHandler());
+        this.ringBuffer = disruptor.start();
+        Gauge.builder("little.log.publisher.queue.size", ringBuffer, rb -> rb.getBufferSize() - rb.remainingCapacity())
+                .description("环形队列中等待处理的日志数")
+                .register(metrics.getRegistry());
+        log.info("Disruptor log publisher started, bufferSize: {}, waitStrategy: {}, overflowPolicy: {}",
+                bufferSize, properties.getWaitStrategy(), overflowPolicy);
+    }
+
+    /**
+     * 发布日志记录，按配置的溢出策略写入环形队列
+     *
+     * @param record 操作日志记录对象
+     */
+    @Override
+    public void publish(ApiLogDTO record) {
+        if (record == null) {
+            return;
+        }
+        publish(TRANSLATOR, record, record.getErrorMessage() != null || record.getErrorStack() != null);
+    }
+
+    /**
+     * 发布日志快照，日志记录由消费线程构造
+     *
+     * @param snapshot 日志快照
+     */
+    @Override
+    public void publish(ApiLogSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        publish(SNAPSHOT_TRANSLATOR, snapshot, snapshot.hasError());
+    }
+
+    private <A> void publish(EventTranslatorOneArg<LogEvent, A> translator, A arg, boolean error) {
+        switch (overflowPolicy) {
+            case BLOCK -> ringBuffer.publishEvent(translator, arg);
+            case DROP_OLDEST -> publishDroppingOldest(translator, arg);
+            case SAMPLE_DOWN -> {
+                if (admit(error) && ringBuffer.tryPublishEvent(translator, arg)) {
+                    return;
+                }
+                metrics.recordQueueFull();
+            }
+            default -> {
+                if (!ringBuffer.tryPublishEvent(translator, arg)) {
+                    metrics.recordQueueFull();
+                }
+            }
+        }
+    }
+
+    /**
+     * 队列已满时通知消费线程跳过最旧的日志，并短暂重试写入
+     * 若消费线程正阻塞在下游处理中迟迟无法腾出槽位，则撤销丢弃请求并丢弃新日志，不阻塞请求线程；
+     * 撤销失败说明消费线程已经跳过了一条旧日志并在推进，此时阻塞写入新日志，保证一次溢出只丢一条日志。
+     * 丢弃数量只在这里记录，每次溢出记录一次
+     */
+    private <A> void publishDroppingOldest(EventTranslatorOneArg<LogEvent, A> translator, A arg) {
+        if (ringBuffer.tryPublishEvent(translator, arg)) {
+            return;
+        }
+        metrics.recordQueueFull();
+        pendingDiscards.incrementAndGet();
+        for (int i = 0; i < DROP_OLDEST_RETRIES; i++) {
+            if (ringBuffer.tryPublishEvent(translator, arg)) {
+                return;
+            }
+            LockSupport.parkNanos(1000L);
+        }
+        // 撤销丢弃请求，避免为一次溢出丢掉两条日志
+        if (!takePendingDiscard()) {
+            ringBuffer.publishEvent(translator, arg);
+        }
+    }
+
+    /**
+     * 取走一个丢弃请求，计数不会减到 0 以下
+     *
+     * @return 没有待处理的丢弃请求时返回 false
+     */
+    private boolean takePendingDiscard() {
+        long pending = pendingDiscards.get();
+        while (pending > 0) {
+            if (pendingDiscards.compareAndSet(pending, pending - 1)) {
+                return true;
+            }
+            pending = pendingDiscards.get();
+        }
+        return false;
+    }
+
+    /**
+     * 降采样判断：剩余容量低于阈值后，按剩余容量占阈值的比例放行，异常日志始终放行
+     */
+    private boolean admit(boolean error) {
+        long remaining = ringBuffer.remainingCapacity();
+        if (remaining >= sampleDownCapacity || error) {
+            return true;
+        }
+        return ThreadLocalRandom.current().nextLong(sampleDownCapacity) < remaining;
+    }
+
+    /**
+     * 消费线程处理事件，达到批次上限或已追上生产者时写出当前批次
+     */
+    private void onEvent(LogEvent event, long sequence, boolean endOfBatch) {
+        try {
+            if (!takePendingDiscard()) {
+                batcher.add(event.resolve());
+            }
+        } catch (RuntimeException e) {
+            log.warn("构造日志记录失败，已跳过, sequence: {}", sequence, e);
+        } finally {
+            event.clear();
+        }
+        if (endOfBatch) {
+            batcher.flush();
+        }
+    }
+
+    /**
+     * 获取因队列写满而丢弃的日志数量
+     *
+     * @return 丢弃数量
+     */
+    public long getDroppedCount() {
+        return metrics.getDroppedCount(LogSinkMetrics.DROP_QUEUE_FULL);
+    }
+
+    /**
+     * 获取环形队列剩余容量
+     *
+     * @return 剩余容量
+     */
+    public long getRemainingCapacity() {
+        return ringBuffer.remainingCapacity();
+    }
+
+    /**
+     * 应用关闭时等待队列中的日志处理完成
+     */
+    @Override
+    public void destroy() {
+        try {
+            disruptor.shutdown(shutdownTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Disruptor log publisher shutdown timed out, remaining logs will be discarded.");
+            disruptor.halt();
+        }
+    }
+
+    private static int ceilingPowerOfTwo(int size) {
+        if (size <= 1) {
+            return 1;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * 消费线程工厂，创建守护线程
+     */
+    private static class LogThreadFactory implements ThreadFactory {
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "little-log-disruptor-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * 消费异常处理，单条日志处理失败不影响后续日志
+     */
+    private static class LogExceptionHandler implements ExceptionHandler<Object> {
+        @Override
+        public void handleEventException(Throwable ex, long sequence, Object event) {
+            log.error("处理日志事件失败, sequence: {}", sequence, ex);
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            log.error("Disruptor 日志发布者启动失败", ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            log.error("Disruptor 日志发布者关闭失败", ex);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package cn.chenlijian.little.starter.log.publisher.disruptor;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.capture.ApiLogSnapshot;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 环形队列中的日志事件槽位
+ * 槽位在启动时预分配并循环复用，消费完成后清空引用，避免长期持有日志对象
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Getter
+@Setter
+public class LogEvent {
+
+    /**
+     * 当前槽位承载的日志记录
+     */
+    private ApiLogDTO record;
+
+    /**
+     * 当前槽位承载的日志快照，lazy 采集模式下由消费线程构造日志记录
+     */
+    private ApiLogSnapshot snapshot;
+
+    /**
+     * 获取槽位中的日志记录，承载的是快照时在当前线程中构造
+     *
+     * @return 日志记录
+     */
+    public ApiLogDTO resolve() {
+        return record != null ? record : snapshot.materialize();
+    }
+
+    /**
+     * 清空槽位
+     */
+    public void clear() {
+        this.record = null;
+        this.snapshot = null;
+    }
+}
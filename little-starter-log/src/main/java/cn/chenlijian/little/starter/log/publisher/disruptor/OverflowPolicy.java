@@ -0,0 +1,25 @@
+package cn.chenlijian.little.starter.log.publisher.disruptor;
+
+/**
+ * 环形队列写满时的处理策略
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public enum OverflowPolicy {
+    /**
+     * 丢弃当前新到达的日志
+     */
+    DROP_NEWEST,
+    /**
+     * 丢弃队列中最早的日志，为新日志腾出位置
+     */
+    DROP_OLDEST,
+    /**
+     * 阻塞请求线程，直到队列出现空位
+     */
+    BLOCK,
+    /**
+     * 队列占用率超过阈值后按剩余容量比例降采样，异常日志始终保留
+     */
+    SAMPLE_DOWN
+}
@@ -0,0 +1,45 @@
+package cn.chenlijian.little.starter.log.publisher.disruptor;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+/**
+ * 消费线程等待策略类型
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public enum WaitStrategyType {
+    /**
+     * 基于锁和条件变量，CPU 占用最低，延迟最高
+     */
+    BLOCKING,
+    /**
+     * 自旋后逐步让出 CPU 并休眠，适合日志这类对延迟不敏感的场景
+     */
+    SLEEPING,
+    /**
+     * 自旋后调用 Thread.yield()，延迟低但会占用 CPU
+     */
+    YIELDING,
+    /**
+     * 忙等待，延迟最低，会独占一个 CPU 核心
+     */
+    BUSY_SPIN;
+
+    /**
+     * 创建对应的 Disruptor 等待策略实例
+     *
+     * @return 等待策略
+     */
+    public WaitStrategy create() {
+        return switch (this) {
+            case SLEEPING -> new SleepingWaitStrategy();
+            case YIELDING -> new YieldingWaitStrategy();
+            case BUSY_SPIN -> new BusySpinWaitStrategy();
+            default -> new BlockingWaitStrategy();
+        };
+    }
+}
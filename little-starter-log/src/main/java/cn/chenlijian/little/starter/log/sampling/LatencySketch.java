@@ -0,0 +1,119 @@
+package cn.chenlijian.little.starter.log.sampling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的流式耗时分位数估计
+ * 耗时按微秒计入对数-线性分桶：每个 2 的幂区间再等分为 8 个子桶，相对误差不超过 12.5%，
+ * 覆盖 1 微秒到约 25 天，共 {@value #BUCKETS} 个 {@link AtomicLongArray} 计数，记录一次只需一次原子加。
+ * <p>
+ * 分位数查询需要遍历全部分桶，调用方应缓存结果，例如每个统计周期计算一次。
+ * {@link #decay()} 把所有计数减半，使估计值跟随耗时分布的变化；与并发记录交错时结果是近似的，这对采样阈值足够。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class LatencySketch {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    /**
+     * 分桶数量
+     */
+    public static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param durationNanos 耗时（纳秒）
+     */
+    public void record(long durationNanos) {
+        counts.incrementAndGet(index(durationNanos / 1000));
+        total.increment();
+    }
+
+    /**
+     * 已记录的次数（衰减后的近似值）
+     *
+     * @return 次数
+     */
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * 估计分位数
+     *
+     * @param quantile 分位数，例如 0.99
+     * @return 分位数的估计值（纳秒），在所在分桶内线性插值；没有记录时返回 -1
+     */
+    public long quantile(double quantile) {
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            sum += counts.get(i);
+        }
+        if (sum == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(sum * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count > 0 && seen + count >= rank) {
+                // 在分桶内按均匀分布线性插值
+                long lower = lowerBound(i);
+                double fraction = (double) (rank - seen) / count;
+                return (long) ((lower + (lowerBound(i + 1) - lower) * fraction) * 1000);
+            }
+            seen += count;
+        }
+        return lowerBound(BUCKETS - 1) * 1000;
+    }
+
+    /**
+     * 所有计数减半
+     */
+    public void decay() {
+        long removed = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long current = counts.get(i);
+            if (current > 0) {
+                long half = current >>> 1;
+                counts.addAndGet(i, -half);
+                removed += half;
+            }
+        }
+        total.add(-removed);
+    }
+
+    /**
+     * 计算微秒值所在的分桶：小于 8 的值直接作为下标，更大的值按最高位所在的指数和其后 3 位分桶
+     */
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int mantissa = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * 分桶的下界（微秒）
+     */
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int mantissa = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + mantissa) << (exponent - SUB_BUCKET_BITS);
+    }
+}
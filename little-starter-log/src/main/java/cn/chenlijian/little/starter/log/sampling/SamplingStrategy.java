@@ -11,4 +11,18 @@ public interface SamplingStrategy {
      * @return true 表示记录日志，false 表示跳过
      */
     boolean shouldSample(HttpServletRequest request, boolean hasError);
+
+    /**
+     * 判断是否应该记录该请求的日志，可以参考本次调用的接口和耗时
+     * 日志切面在方法执行结束后调用此方法，默认忽略接口和耗时
+     *
+     * @param request       当前 HTTP 请求对象
+     * @param hasError      是否发生异常
+     * @param endpoint      被调用的方法，格式为 {@code 类全名.方法名}
+     * @param durationNanos 方法执行耗时（纳秒）
+     * @return true 表示记录日志，false 表示跳过
+     */
+    default boolean shouldSample(HttpServletRequest request, boolean hasError, String endpoint, long durationNanos) {
+        return shouldSample(request, hasError);
+    }
 }
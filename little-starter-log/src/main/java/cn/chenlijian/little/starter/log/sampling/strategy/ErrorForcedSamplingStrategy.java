@@ -22,4 +22,12 @@ public class ErrorForcedSamplingStrategy implements SamplingStrategy {
         }
         return delegate.shouldSample(request, hasError);
     }
+
+    @Override
+    public boolean shouldSample(HttpServletRequest request, boolean hasError, String endpoint, long durationNanos) {
+        if (includeErrors && hasError) {
+            return true; // 强制记录错误请求
+        }
+        return delegate.shouldSample(request, hasError, endpoint, durationNanos);
+    }
 }
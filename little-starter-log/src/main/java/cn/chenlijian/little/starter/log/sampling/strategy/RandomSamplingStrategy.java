@@ -3,6 +3,8 @@ package cn.chenlijian.little.starter.log.sampling.strategy;
 import cn.chenlijian.little.starter.log.sampling.SamplingStrategy;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * 随机采样策略类，用于决定是否对请求进行采样
  * 该类实现了SamplingStrategy接口，通过随机方式来决定请求是否被采样
@@ -33,7 +35,8 @@ public class RandomSamplingStrategy implements SamplingStrategy {
      */
     @Override
     public boolean shouldSample(HttpServletRequest request, boolean hasError) {
-        // 通过比较随机数和采样率来决定是否采样
-        return Math.random() < sampleRate;
+        // 通过比较随机数和采样率来决定是否采样，ThreadLocalRandom 避免多线程争用同一个 Random
+        double rate = sampleRate;
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
     }
 }
@@ -0,0 +1,162 @@
+package cn.chenlijian.little.starter.log.sampling.strategy;
+
+import cn.chenlijian.little.starter.log.props.SamplingProperties;
+import cn.chenlijian.little.starter.log.sampling.SamplingStrategy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按每秒记录数预算自适应的采样策略
+ * 每个接口（按请求匹配的路由模式区分，例如 {@code /users/{id}}）有一个令牌桶和一个按 100 毫秒窗口统计的平均请求速率：
+ * <ul>
+ *     <li>采样概率为 {@code 预算 / 平均请求速率}，流量突增时自动收紧，回落时立即放宽，空闲时回到全量记录，采样在一秒内分布均匀；</li>
+ *     <li>令牌桶保证每个接口每秒记录的条数不超过预算，允许 burst 条的突发；</li>
+ *     <li>配置了全局预算时，所有接口共享一个令牌桶作为总上限。</li>
+ * </ul>
+ * 令牌桶使用 GCRA 算法，只有一个 {@link AtomicLong} 状态，一次 CAS 完成判断和扣减；随机数使用 {@link ThreadLocalRandom}，线程之间没有竞争。
+ * 接口数量超过上限后，新出现的接口共用一个溢出桶，避免路径参数未被路由模式归并时无限增长。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class RateLimitedSamplingStrategy implements SamplingStrategy {
+
+    private static final long SECOND_NANOS = 1_000_000_000L;
+    /**
+     * 统计请求速率的窗口长度，窗口较短时流量回落后能更快放宽采样
+     */
+    private static final long WINDOW_NANOS = 100_000_000L;
+    /**
+     * 速率上升时最近一个窗口的权重
+     */
+    private static final double ALPHA = 0.3;
+
+    private final double recordsPerSecond;
+    private final long interval;
+    private final long tolerance;
+    private final int maxEndpoints;
+    private final Bucket global;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    /**
+     * 没有匹配到路由模式或接口数量超过上限时使用的桶
+     */
+    private final Bucket overflow;
+
+    public RateLimitedSamplingStrategy(SamplingProperties.RateLimit properties) {
+        this.recordsPerSecond = Math.max(0.001, properties.getRecordsPerSecond());
+        double burst = properties.getBurst() > 0 ? properties.getBurst() : Math.max(1, recordsPerSecond);
+        this.interval = (long) (SECOND_NANOS / recordsPerSecond);
+        this.tolerance = (long) (interval * Math.max(0, burst - 1));
+        this.maxEndpoints = properties.getMaxEndpoints();
+        double globalRate = properties.getGlobalRecordsPerSecond();
+        if (globalRate > 0) {
+            long globalInterval = (long) (SECOND_NANOS / globalRate);
+            this.global = new Bucket(globalInterval, (long) (globalInterval * Math.max(0, Math.max(1, globalRate) - 1)));
+        } else {
+            this.global = null;
+        }
+        this.overflow = new Bucket(interval, tolerance);
+    }
+
+    @Override
+    public boolean shouldSample(HttpServletRequest request, boolean hasError) {
+        long now = System.nanoTime();
+        Bucket bucket = bucket(request);
+        double rate = bucket.observe(now);
+        // 平均速率未超过预算时全量记录，超过后按比例采样
+        if (rate > recordsPerSecond && ThreadLocalRandom.current().nextDouble() * rate >= recordsPerSecond) {
+            return false;
+        }
+        if (!bucket.tryAcquire(now)) {
+            return false;
+        }
+        return global == null || global.tryAcquire(now);
+    }
+
+    private Bucket bucket(HttpServletRequest request) {
+        Object pattern = request == null ? null : request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!(pattern instanceof String key)) {
+            return overflow;
+        }
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxEndpoints) {
+            return overflow;
+        }
+        return buckets.computeIfAbsent(key, k -> new Bucket(interval, tolerance));
+    }
+
+    /**
+     * 当前跟踪的接口数量，不含溢出桶
+     *
+     * @return 接口数量
+     */
+    public int getEndpointCount() {
+        return buckets.size();
+    }
+
+    /**
+     * 一个接口的令牌桶和请求速率统计
+     */
+    static final class Bucket {
+
+        /**
+         * 相邻两次放行之间的理论间隔
+         */
+        private final long interval;
+        /**
+         * 允许提前放行的时间，对应 burst - 1 个令牌
+         */
+        private final long tolerance;
+        /**
+         * 理论到达时间（GCRA 的 TAT），小于等于 now + tolerance 时放行
+         */
+        private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final LongAdder windowCount = new LongAdder();
+        private volatile double averageRate;
+
+        Bucket(long interval, long tolerance) {
+            this.interval = interval;
+            this.tolerance = tolerance;
+        }
+
+        boolean tryAcquire(long now) {
+            while (true) {
+                long current = arrival.get();
+                long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                if (base - now > tolerance) {
+                    return false;
+                }
+                if (arrival.compareAndSet(current, base + interval)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 统计一次请求，返回平均请求速率（次/秒）
+         * 计数使用 LongAdder 分散热点接口上的竞争；窗口结束后由抢到 CAS 的线程滚动窗口并更新平均值，其他线程继续累加计数
+         */
+        double observe(long now) {
+            windowCount.increment();
+            long start = windowStart.get();
+            long elapsed = now - start;
+            if (elapsed >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+                double rate = windowCount.sumThenReset() * (double) SECOND_NANOS / elapsed;
+                double average = averageRate;
+                // 速率上升时平滑收紧，期间由令牌桶兜底；速率回落时立即放宽，空闲后的请求不会被历史峰值压制
+                averageRate = rate < average ? rate : average + ALPHA * (rate - average);
+            }
+            return averageRate;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package cn.chenlijian.little.starter.log.sampling.strategy;
+
+import cn.chenlijian.little.starter.log.props.SamplingProperties;
+import cn.chenlijian.little.starter.log.sampling.LatencySketch;
+import cn.chenlijian.little.starter.log.sampling.SamplingStrategy;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于耗时的尾部采样策略
+ * 每个接口维护一个 {@link LatencySketch}，在线学习耗时分位数（默认 p99）作为慢请求阈值：
+ * <ul>
+ *     <li>耗时达到阈值的请求全部记录；</li>
+ *     <li>快速完成的请求按 fastRate 随机记录；</li>
+ *     <li>接口的样本数少于 minSamples 时还没有可靠的阈值，全部记录。</li>
+ * </ul>
+ * 阈值每个刷新周期由一个线程重新计算，请求线程只读取缓存的阈值；计数每个衰减周期减半，阈值跟随耗时分布的变化。
+ * 异常请求是否总是记录由 {@link ErrorForcedSamplingStrategy} 决定。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class TailSamplingStrategy implements SamplingStrategy {
+
+    private final double quantile;
+    private final double fastRate;
+    private final long minSamples;
+    private final long refreshNanos;
+    private final long decayNanos;
+    private final int maxEndpoints;
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    /**
+     * 没有接口信息或接口数量超过上限时使用的统计
+     */
+    private final Endpoint overflow;
+
+    public TailSamplingStrategy(SamplingProperties.Tail properties) {
+        this.quantile = Math.max(0.0, Math.min(1.0, properties.getQuantile()));
+        this.fastRate = Math.max(0.0, Math.min(1.0, properties.getFastRate()));
+        this.minSamples = Math.max(1, properties.getMinSamples());
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getRefreshInterval()));
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getDecayInterval()));
+        this.maxEndpoints = properties.getMaxEndpoints();
+        this.overflow = new Endpoint(System.nanoTime());
+    }
+
+    /**
+     * 没有耗时信息时无法判断快慢，总是记录
+     */
+    @Override
+    public boolean shouldSample(HttpServletRequest request, boolean hasError) {
+        return true;
+    }
+
+    @Override
+    public boolean shouldSample(HttpServletRequest request, boolean hasError, String endpoint, long durationNanos) {
+        long now = System.nanoTime();
+        Endpoint state = endpoint(endpoint, now);
+        state.sketch.record(durationNanos);
+        state.refresh(now);
+        long threshold = state.threshold;
+        if (threshold < 0 || durationNanos >= threshold) {
+            return true;
+        }
+        return fastRate > 0 && ThreadLocalRandom.current().nextDouble() < fastRate;
+    }
+
+    /**
+     * 获取接口当前的慢请求阈值
+     *
+     * @param endpoint 接口
+     * @return 阈值（纳秒），样本不足时返回 -1
+     */
+    public long getThreshold(String endpoint) {
+        Endpoint state = endpoint == null ? overflow : endpoints.getOrDefault(endpoint, overflow);
+        return state.threshold;
+    }
+
+    private Endpoint endpoint(String endpoint, long now) {
+        if (endpoint == null) {
+            return overflow;
+        }
+        Endpoint state = endpoints.get(endpoint);
+        if (state != null) {
+            return state;
+        }
+        if (endpoints.size() >= maxEndpoints) {
+            return overflow;
+        }
+        return endpoints.computeIfAbsent(endpoint, k -> new Endpoint(now));
+    }
+
+    /**
+     * 一个接口的耗时统计和缓存的阈值
+     */
+    private final class Endpoint {
+
+        private final LatencySketch sketch = new LatencySketch();
+        private final AtomicLong nextRefresh;
+        private volatile long nextDecay;
+        private volatile long threshold = -1;
+
+        private Endpoint(long now) {
+            this.nextRefresh = new AtomicLong(now);
+            this.nextDecay = now + decayNanos;
+        }
+
+        /**
+         * 样本不足时每次都检查，之后每个刷新周期由抢到 CAS 的线程重新计算阈值
+         */
+        private void refresh(long now) {
+            long next = nextRefresh.get();
+            if (threshold >= 0 && now - next < 0) {
+                return;
+            }
+            if (sketch.count() < minSamples || !nextRefresh.compareAndSet(next, now + refreshNanos)) {
+                return;
+            }
+            if (now - nextDecay >= 0) {
+                sketch.decay();
+                nextDecay = now + decayNanos;
+            }
+            threshold = sketch.quantile(quantile);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package cn.chenlijian.little.starter.log.sampling.strategy;
+
+import cn.chenlijian.little.starter.log.sampling.SamplingStrategy;
+import cn.chenlijian.little.starter.log.utils.LogUtil;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按追踪 ID 一致采样的策略
+ * 对追踪 ID 做非加密哈希（FNV-1a 加 MurmurHash3 的 64 位混淆），把哈希值映射到 [0, 1) 后与采样率比较。
+ * 调用链上各个服务使用相同的采样率时，同一个追踪 ID 在每一跳得到相同的结论，整条链路要么全部记录、要么全部跳过。
+ * <p>
+ * 请求头中没有追踪 ID 时由 {@link LogUtil#getTraceId} 生成一个并保存在请求中，后续各处读取到的是同一个 ID。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class TraceIdSamplingStrategy implements SamplingStrategy {
+
+    private final double sampleRate;
+    private final String traceIdKey;
+
+    /**
+     * 构造函数
+     *
+     * @param sampleRate 采样率，范围在0.0到1.0之间
+     * @param traceIdKey 请求头中追踪 ID 的 Key
+     */
+    public TraceIdSamplingStrategy(double sampleRate, String traceIdKey) {
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        this.traceIdKey = traceIdKey;
+    }
+
+    @Override
+    public boolean shouldSample(HttpServletRequest request, boolean hasError) {
+        if (sampleRate >= 1.0) {
+            return true;
+        }
+        if (sampleRate <= 0.0) {
+            return false;
+        }
+        String traceId = LogUtil.getTraceId(request, traceIdKey);
+        if (traceId == null) {
+            // 没有请求上下文，无法与其他服务保持一致
+            return ThreadLocalRandom.current().nextDouble() < sampleRate;
+        }
+        return toUnitInterval(hash(traceId)) < sampleRate;
+    }
+
+    /**
+     * 64 位 FNV-1a 哈希，再用 MurmurHash3 的 fmix64 混淆，使按时间有序的追踪 ID 也能均匀分布
+     *
+     * @param value 字符串
+     * @return 哈希值
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 取哈希值的高 53 位映射到 [0, 1)
+     */
+    private static double toUnitInterval(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,162 @@
+package cn.chenlijian.little.starter.log.sink;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日志批次聚合器
+ * 按记录数、估算字节数和最长等待时间三个条件聚合日志，任一条件满足即整批交给 {@link LogSink}
+ * 非线程安全，只能由发布器的单个工作线程使用
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class LogBatcher {
+
+    /**
+     * 每条记录除字符串字段外的固定开销估算（字节）
+     */
+    private static final int RECORD_OVERHEAD = 64;
+
+    /**
+     * 批次为空时工作线程的最长空闲等待时间（纳秒）
+     */
+    private static final long IDLE_WAIT_NANOS = 100_000_000L;
+
+    private final LogSink sink;
+    private final LogSinkMetrics metrics;
+    private final int maxSize;
+    private final long maxBytes;
+    private final long lingerNanos;
+    private final List<ApiLogDTO> buffer;
+
+    private long bufferedBytes;
+    /**
+     * 当前批次第一条记录的加入时间，批次为空时无意义
+     */
+    private long firstRecordNanos;
+
+    /**
+     * 构造函数
+     *
+     * @param sink     日志输出端
+     * @param metrics  管道指标
+     * @param maxSize  单批最大记录数
+     * @param maxBytes 单批最大估算字节数
+     * @param lingerMs 批次最长等待时间（毫秒）
+     */
+    public LogBatcher(LogSink sink, LogSinkMetrics metrics, int maxSize, long maxBytes, long lingerMs) {
+        this.sink = sink;
+        this.metrics = metrics;
+        this.maxSize = Math.max(1, maxSize);
+        this.maxBytes = Math.max(1L, maxBytes);
+        this.lingerNanos = Math.max(0L, lingerMs) * 1_000_000L;
+        this.buffer = new ArrayList<>(this.maxSize);
+    }
+
+    /**
+     * 添加一条日志，达到记录数或字节数上限时立即写出
+     *
+     * @param record 日志记录
+     */
+    public void add(ApiLogDTO record) {
+        if (record == null) {
+            return;
+        }
+        if (buffer.isEmpty()) {
+            firstRecordNanos = System.nanoTime();
+        }
+        buffer.add(record);
+        bufferedBytes += estimateSize(record);
+        if (buffer.size() >= maxSize || bufferedBytes >= maxBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * 当前批次等待时间超过上限时写出
+     *
+     * @param nowNanos 当前时间（System.nanoTime()）
+     */
+    public void flushIfExpired(long nowNanos) {
+        if (!buffer.isEmpty() && nowNanos - firstRecordNanos >= lingerNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * 距离当前批次到期还需等待的时间
+     *
+     * @param nowNanos 当前时间（System.nanoTime()）
+     * @return 剩余等待时间（纳秒），批次为空时返回空闲等待时间
+     */
+    public long nanosUntilExpired(long nowNanos) {
+        if (buffer.isEmpty()) {
+            return Math.max(lingerNanos, IDLE_WAIT_NANOS);
+        }
+        return Math.max(0L, lingerNanos - (nowNanos - firstRecordNanos));
+    }
+
+    /**
+     * 立即写出当前批次
+     * 输出端抛出的异常会被记录并计入丢弃数量，不会中断发布器工作线程
+     */
+    public void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        int size = buffer.size();
+        long bytes = bufferedBytes;
+        long start = System.nanoTime();
+        try {
+            sink.write(buffer);
+            metrics.recordFlush(size, bytes, System.nanoTime() - start);
+        } catch (Exception e) {
+            log.error("写出日志批次失败, 丢弃 {} 条日志", size, e);
+            metrics.recordSinkError(size);
+        } finally {
+            buffer.clear();
+            bufferedBytes = 0;
+        }
+    }
+
+    /**
+     * 当前批次是否为空
+     *
+     * @return true 表示为空
+     */
+    public boolean isEmpty() {
+        return buffer.isEmpty();
+    }
+
+    /**
+     * 估算单条日志的字节数，按字符串字段长度累加，不做实际序列化
+     *
+     * @param record 日志记录
+     * @return 估算字节数
+     */
+    public static long estimateSize(ApiLogDTO record) {
+        return RECORD_OVERHEAD
+                + length(record.getTraceId())
+                + length(record.getHttpMethod())
+                + length(record.getRequestPath())
+                + length(record.getRequestParams())
+                + length(record.getRequestBody())
+                + length(record.getClientIp())
+                + length(record.getUserAgent())
+                + length(record.getResponseBody())
+                + length(record.getClassPath())
+                + length(record.getActionMethod())
+                + length(record.getDescription())
+                + length(record.getUsername())
+                + length(record.getErrorMessage())
+                + length(record.getErrorStack());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,24 @@
+package cn.chenlijian.little.starter.log.sink;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+
+import java.util.List;
+
+/**
+ * 日志输出端接口
+ * 发布器会把日志按批次交给输出端，实现类可以一次批量插入数据库或一次写入文件，而不是每条日志单独处理
+ * 实现类需要是线程安全的，参见 {@link #write(List)}
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public interface LogSink {
+    /**
+     * 批量写出日志记录
+     * 实现类必须是线程安全的：default 发布器在 {@code @Async} 线程中并发调用（虚拟线程模式下并发数不受线程池限制），
+     * disruptor、batching 和落盘发布器在各自的单个工作线程中调用。
+     * 调用返回后批次列表可能被复用，实现类不应持有该列表的引用
+     *
+     * @param batch 日志记录批次，不为空
+     */
+    void write(List<ApiLogDTO> batch);
+}
@@ -0,0 +1,106 @@
+package cn.chenlijian.little.starter.log.sink;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志输出管道指标
+ * 记录批次写出耗时、批次大小分布以及各类原因导致的日志丢弃数量
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class LogSinkMetrics {
+
+    /**
+     * 丢弃原因：发布队列已满
+     */
+    public static final String DROP_QUEUE_FULL = "queue_full";
+    /**
+     * 丢弃原因：输出端写出失败
+     */
+    public static final String DROP_SINK_ERROR = "sink_error";
+
+    private final MeterRegistry registry;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSize;
+    private final DistributionSummary batchBytes;
+    private final Counter droppedQueueFull;
+    private final Counter droppedSinkError;
+
+    public LogSinkMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.flushTimer = Timer.builder("little.log.sink.flush")
+                .description("日志批次写出耗时")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.batchSize = DistributionSummary.builder("little.log.sink.batch.size")
+                .description("日志批次包含的记录数")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.batchBytes = DistributionSummary.builder("little.log.sink.batch.bytes")
+                .description("日志批次的估算字节数")
+                .baseUnit("bytes")
+                .register(registry);
+        this.droppedQueueFull = dropCounter(DROP_QUEUE_FULL);
+        this.droppedSinkError = dropCounter(DROP_SINK_ERROR);
+    }
+
+    private Counter dropCounter(String reason) {
+        return Counter.builder("little.log.dropped")
+                .description("被丢弃的日志数量")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * 记录一次批次写出
+     *
+     * @param records     批次记录数
+     * @param bytes       批次估算字节数
+     * @param elapsedNanos 写出耗时（纳秒）
+     */
+    public void recordFlush(int records, long bytes, long elapsedNanos) {
+        flushTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        batchSize.record(records);
+        batchBytes.record(bytes);
+    }
+
+    /**
+     * 记录因队列已满被丢弃的日志
+     */
+    public void recordQueueFull() {
+        droppedQueueFull.increment();
+    }
+
+    /**
+     * 记录因输出端写出失败被丢弃的日志
+     *
+     * @param count 丢弃数量
+     */
+    public void recordSinkError(int count) {
+        droppedSinkError.increment(count);
+    }
+
+    /**
+     * 获取指定原因的丢弃数量
+     *
+     * @param reason 丢弃原因
+     * @return 丢弃数量
+     */
+    public long getDroppedCount(String reason) {
+        return (long) (DROP_QUEUE_FULL.equals(reason) ? droppedQueueFull.count() : droppedSinkError.count());
+    }
+
+    /**
+     * 获取指标注册中心，便于发布器注册额外的指标
+     *
+     * @return 指标注册中心
+     */
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+}
@@ -0,0 +1,29 @@
+package cn.chenlijian.little.starter.log.sink;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.codec.JsonLogCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 默认日志输出端实现类
+ * 将日志记录转换为JSON字符串并通过日志框架打印出来，编码使用线程本地的缓冲区，可以被多个线程并发调用
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class Slf4jLogSink implements LogSink {
+
+    private final JsonLogCodec codec = new JsonLogCodec();
+
+    @Override
+    public void write(List<ApiLogDTO> batch) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        for (ApiLogDTO record : batch) {
+            log.info("[ApiLogDTO] {}", codec.toJson(record));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package cn.chenlijian.little.starter.log.spool;
+
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import cn.chenlijian.little.starter.log.codec.LogCodec;
+import cn.chenlijian.little.starter.log.props.SpoolProperties;
+import cn.chenlijian.little.starter.log.publisher.LogPublisher;
+import cn.chenlijian.little.starter.log.sink.LogSink;
+import cn.chenlijian.little.starter.log.sink.LogSinkMetrics;
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 基于内存映射段文件的落盘日志发布者
+ * 请求线程把编码后的日志追加到当前段文件，后台回放线程按顺序读取并交给 {@link LogSink}，
+ * 整个段文件回放成功后才删除。下游变慢时日志堆积在磁盘而不是堆内存中，也不会阻塞请求线程。
+ * 投递语义为至少一次：进程重启后未删除的段文件会从头回放，可能出现重复日志。
+ * 日志必须在请求线程中编码落盘，因此 lazy 采集模式下的快照也会在请求线程中构造。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class SpoolLogPublisher implements LogPublisher, DisposableBean {
+
+    private final SpoolProperties properties;
+    private final LogSink sink;
+    private final LogSinkMetrics metrics;
+    private final LogCodec codec;
+    private final Path directory;
+    /**
+     * 所有未删除的段文件，按序号从旧到新排列，最后一个为当前写入段
+     */
+    private final Deque<SpoolSegment> segments = new ConcurrentLinkedDeque<>();
+    /**
+     * 写锁，换段时会创建和映射文件，不使用 synchronized，避免在 Java 21 上把虚拟线程固定在载体线程上
+     */
+    private final Lock writeLock = new ReentrantLock();
+    private final Thread drainer;
+
+    private SpoolSegment active;
+    private volatile boolean running = true;
+
+    /**
+     * 构造函数，恢复已有段文件并启动回放线程
+     *
+     * @param properties 落盘配置
+     * @param sink       日志输出端
+     * @param metrics    管道指标
+     * @param codec      段文件中日志记录的编解码器
+     */
+    public SpoolLogPublisher(SpoolProperties properties, LogSink sink, LogSinkMetrics metrics, LogCodec codec) {
+        this.properties = properties;
+        this.sink = sink;
+        this.metrics = metrics;
+        this.codec = codec;
+        this.directory = Paths.get(properties.getDirectory());
+        try {
+            Files.createDirectories(directory);
+            recover();
+            this.active = SpoolSegment.create(directory, nextSequence(), properties.getSegmentSize());
+            segments.addLast(active);
+        } catch (IOException e) {
+            throw new UncheckedIOException("初始化日志落盘目录失败: " + directory, e);
+        }
+        Gauge.builder("little.log.spool.segments", segments, Deque::size)
+                .description("未回放完成的段文件数量")
+                .register(metrics.getRegistry());
+
+        this.drainer = new Thread(this::drainLoop, "little-log-spool");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+        log.info("Spool log publisher started, directory: {}, recovered segments: {}", directory, segments.size() - 1);
+    }
+
+    /**
+     * 发布日志记录：在锁外完成编码和校验，锁内仅做内存拷贝
+     *
+     * @param record 操作日志记录对象
+     */
+    @Override
+    public void publish(ApiLogDTO record) {
+        if (record == null) {
+            return;
+        }
+        byte[] payload = codec.encode(record);
+        if (payload.length + SpoolSegment.FRAME_HEADER_SIZE > properties.getSegmentSize()) {
+            log.warn("日志记录大小 {} 超过段文件大小，已丢弃", payload.length);
+            metrics.recordQueueFull();
+            return;
+        }
+        int crc = SpoolSegment.checksum(payload);
+        writeLock.lock();
+        try {
+            if (active.append(payload, crc)) {
+                return;
+            }
+            if (!running || segments.size() >= properties.getMaxSegments()) {
+                metrics.recordQueueFull();
+                return;
+            }
+            try {
+                roll();
+            } catch (IOException e) {
+                log.error("创建日志段文件失败", e);
+                metrics.recordQueueFull();
+                return;
+            }
+            active.append(payload, crc);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 封存当前段文件并创建新的段文件，调用方需持有写锁
+     */
+    private void roll() throws IOException {
+        active.seal(properties.isForceOnRoll());
+        active = SpoolSegment.create(directory, active.getSequence() + 1, properties.getSegmentSize());
+        segments.addLast(active);
+    }
+
+    /**
+     * 回放线程主循环：从最旧的段文件开始读取，整批写出成功后推进读取位置，段文件读完且已封存则删除
+     */
+    private void drainLoop() {
+        List<ApiLogDTO> batch = new ArrayList<>(properties.getDrainBatchSize());
+        int position = 0;
+        while (true) {
+            SpoolSegment segment = segments.peekFirst();
+            if (segment == null) {
+                return;
+            }
+            int next = readBatch(segment, position, batch);
+            if (!batch.isEmpty()) {
+                if (!writeBatch(batch, next - position)) {
+                    batch.clear();
+                    if (!running) {
+                        return;
+                    }
+                    LockSupport.parkNanos(properties.getRetryInterval() * 1_000_000L);
+                    continue;
+                }
+                batch.clear();
+                position = next;
+                continue;
+            }
+            position = next;
+            if (segment.isSealed() && position >= segment.getCommitted()) {
+                segments.pollFirst();
+                segment.delete();
+                position = 0;
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            LockSupport.parkNanos(properties.getDrainInterval() * 1_000_000L);
+        }
+    }
+
+    /**
+     * 从指定位置读取一批日志
+     *
+     * @return 下一次读取的起始位置
+     */
+    private int readBatch(SpoolSegment segment, int position, List<ApiLogDTO> batch) {
+        int committed = segment.getCommitted();
+        while (position < committed && batch.size() < properties.getDrainBatchSize()) {
+            byte[] payload = segment.read(position);
+            if (payload == null) {
+                log.warn("段文件 {} 在位置 {} 处校验失败，跳过剩余数据", segment.getFile(), position);
+                return committed;
+            }
+            try {
+                batch.add(codec.decode(payload));
+            } catch (RuntimeException e) {
+                log.warn("解码日志记录失败，已跳过", e);
+            }
+            position += SpoolSegment.FRAME_HEADER_SIZE + payload.length;
+        }
+        return position;
+    }
+
+    private boolean writeBatch(List<ApiLogDTO> batch, long bytes) {
+        long start = System.nanoTime();
+        try {
+            sink.write(batch);
+            metrics.recordFlush(batch.size(), bytes, System.nanoTime() - start);
+            return true;
+        } catch (Exception e) {
+            log.warn("回放日志批次失败，{} 毫秒后重试", properties.getRetryInterval(), e);
+            return false;
+        }
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> existing = files.filter(SpoolSegment::isSegmentFile)
+                    .sorted(Comparator.comparingLong(SpoolSegment::parseSequence))
+                    .toList();
+            for (Path file : existing) {
+                segments.addLast(SpoolSegment.recover(file));
+            }
+        }
+    }
+
+    private long nextSequence() {
+        SpoolSegment last = segments.peekLast();
+        return last == null ? 0L : last.getSequence() + 1;
+    }
+
+    /**
+     * 应用关闭时停止写入，等待回放线程把当前能写出的日志写完，未回放的段文件保留到下次启动
+     * 回放线程在等待时间内没有退出（例如输出端写入阻塞）时不关闭段文件，避免关闭后回放线程仍在读取和删除段文件
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        writeLock.lock();
+        try {
+            running = false;
+            active.seal(true);
+        } finally {
+            writeLock.unlock();
+        }
+        drainer.join(properties.getDrainInterval() + properties.getRetryInterval());
+        if (drainer.isAlive()) {
+            log.warn("日志回放线程未在关闭前退出，段文件保留到下次启动后回放");
+            return;
+        }
+        for (SpoolSegment segment : segments) {
+            segment.close();
+        }
+    }
+}
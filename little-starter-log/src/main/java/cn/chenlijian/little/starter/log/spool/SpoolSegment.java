@@ -0,0 +1,213 @@
+package cn.chenlijian.little.starter.log.spool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * 内存映射的段文件
+ * 文件由连续的帧组成，每帧格式为：[4 字节负载长度 + 1][4 字节 CRC32C][负载]，长度字段为 0 表示后续尚未写入；
+ * 长度字段加 1 保存，编码结果为空的日志记录（例如 protostuff 编码全部字段为 null 的记录）也能写入
+ * 写入由发布者在锁内完成，读取由回放线程无锁完成，通过 volatile 的已提交位置保证可见性
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+class SpoolSegment {
+
+    static final int FRAME_HEADER_SIZE = 8;
+    private static final String FILE_PREFIX = "spool-";
+    private static final String FILE_SUFFIX = ".seg";
+
+    private final long sequence;
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    /**
+     * 已提交的写入位置，回放线程只读取该位置之前的数据
+     */
+    private volatile int committed;
+    /**
+     * 段文件是否已封存，封存后不再写入
+     */
+    private volatile boolean sealed;
+
+    private SpoolSegment(long sequence, Path file, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+    }
+
+    /**
+     * 创建新的段文件
+     *
+     * @param directory 目录
+     * @param sequence  段序号
+     * @param size      文件大小
+     * @return 段文件
+     * @throws IOException 创建失败
+     */
+    static SpoolSegment create(Path directory, long sequence, int size) throws IOException {
+        Path file = directory.resolve(fileName(sequence));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new SpoolSegment(sequence, file, channel, buffer);
+    }
+
+    /**
+     * 打开已存在的段文件（进程重启后恢复），扫描到第一个无效帧为止，恢复的段文件直接封存
+     *
+     * @param file 段文件
+     * @return 段文件
+     * @throws IOException 打开失败
+     */
+    static SpoolSegment recover(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        SpoolSegment segment = new SpoolSegment(parseSequence(file), file, channel, buffer);
+        int position = 0;
+        while (segment.frameLength(position) >= 0) {
+            if (segment.read(position) == null) {
+                log.warn("段文件 {} 在位置 {} 处校验失败，忽略后续数据", file, position);
+                break;
+            }
+            position += FRAME_HEADER_SIZE + segment.frameLength(position);
+        }
+        segment.committed = position;
+        segment.sealed = true;
+        return segment;
+    }
+
+    /**
+     * 追加一帧数据，调用方需保证同一时刻只有一个线程写入
+     *
+     * @param payload 负载
+     * @param crc     负载的 CRC32C 校验值
+     * @return 剩余空间不足时返回 false
+     */
+    boolean append(byte[] payload, int crc) {
+        int position = committed;
+        int end = position + FRAME_HEADER_SIZE + payload.length;
+        if (sealed || end > capacity) {
+            return false;
+        }
+        buffer.put(position + FRAME_HEADER_SIZE, payload);
+        buffer.putInt(position + 4, crc);
+        // 长度最后写入，保证崩溃后不会出现长度有效而负载不完整的帧被误读
+        buffer.putInt(position, payload.length + 1);
+        committed = end;
+        return true;
+    }
+
+    /**
+     * 读取指定位置的帧负载
+     *
+     * @param position 帧起始位置
+     * @return 负载，校验失败时返回 null
+     */
+    byte[] read(int position) {
+        int length = frameLength(position);
+        if (length < 0 || (long) position + FRAME_HEADER_SIZE + length > capacity) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + FRAME_HEADER_SIZE, payload);
+        return checksum(payload) == buffer.getInt(position + 4) ? payload : null;
+    }
+
+    /**
+     * 获取指定位置帧的负载长度
+     *
+     * @param position 帧起始位置
+     * @return 负载长度，-1 表示尚未写入
+     */
+    int frameLength(int position) {
+        if (position + FRAME_HEADER_SIZE > capacity) {
+            return -1;
+        }
+        return buffer.getInt(position) - 1;
+    }
+
+    /**
+     * 封存段文件
+     *
+     * @param force 是否强制刷盘
+     */
+    void seal(boolean force) {
+        sealed = true;
+        if (force) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * 关闭并删除段文件
+     * 映射内存由 GC 回收，Linux 下删除已映射的文件是安全的
+     */
+    void delete() {
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除段文件失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 关闭段文件但保留数据，用于应用关闭
+     */
+    void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("关闭段文件失败: {}", file, e);
+        }
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    int getCommitted() {
+        return committed;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+    }
+
+    static long parseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+
+    private static String fileName(long sequence) {
+        return String.format("%s%020d%s", FILE_PREFIX, sequence, FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,91 @@
+package cn.chenlijian.little.starter.log.trace;
+
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import cn.chenlijian.little.common.context.ContextHolder;
+import cn.chenlijian.little.common.context.LittleContext;
+import cn.chenlijian.little.common.utils.ContextUtil;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 把提交任务线程的 MDC（包括追踪 ID）、{@link ContextUtil} 上下文和 {@link ContextHolder} 绑定的 {@link LittleContext} 传递给执行任务的线程
+ * Spring Boot 会把容器中唯一的 {@link TaskDecorator} 应用到 {@code @Async} 使用的线程池和虚拟线程执行器上。
+ * <p>
+ * 提交时只复制 ContextUtil 的小 Map，使用 Logback 时 MDC 直接引用其只读 Map，没有上下文时直接返回原任务；执行结束后恢复执行线程原来的上下文，
+ * 线程池复用线程或由调用线程执行（CallerRunsPolicy）时不会串用上下文。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    private static final boolean LOGBACK_MDC = ClassUtils.isPresent("ch.qos.logback.classic.util.LogbackMDCAdapter",
+            ContextPropagatingTaskDecorator.class.getClassLoader());
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Map<String, String> mdc = snapshotMdc();
+        Map<String, String> context = ContextUtil.getLocalContext();
+        // ContextUtil 的 Map 可变，提交线程后续的修改不应影响已提交的任务
+        Map<String, String> contextSnapshot = context == null || context.isEmpty() ? null : new HashMap<>(context);
+        // LittleContext 不可变，直接在工作线程中重新绑定
+        LittleContext littleContext = ContextHolder.isBound() ? ContextHolder.current() : null;
+        if ((mdc == null || mdc.isEmpty()) && contextSnapshot == null && littleContext == null) {
+            return runnable;
+        }
+        return () -> {
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            Map<String, String> previousContext = ContextUtil.getLocalContext();
+            apply(mdc, contextSnapshot);
+            try {
+                if (littleContext == null) {
+                    runnable.run();
+                } else {
+                    ContextHolder.run(littleContext, runnable);
+                }
+            } finally {
+                apply(previousMdc, previousContext);
+            }
+        };
+    }
+
+    /**
+     * 使用 Logback 时直接取 MDC 的只读 Map：它在 MDC 变化时整体替换，持有引用即可作为快照，不需要复制
+     */
+    private static Map<String, String> snapshotMdc() {
+        if (LOGBACK_MDC && LogbackMdc.isActive()) {
+            return LogbackMdc.getPropertyMap();
+        }
+        return MDC.getCopyOfContextMap();
+    }
+
+    private static void apply(Map<String, String> mdc, Map<String, String> context) {
+        if (mdc == null || mdc.isEmpty()) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(mdc);
+        }
+        if (context == null) {
+            ContextUtil.removeLocalContext();
+        } else {
+            ContextUtil.setLocalContext(context);
+        }
+    }
+
+    /**
+     * 隔离对 Logback 类的引用，没有 Logback 时不会加载
+     */
+    private static final class LogbackMdc {
+
+        static boolean isActive() {
+            return MDC.getMDCAdapter() instanceof LogbackMDCAdapter;
+        }
+
+        static Map<String, String> getPropertyMap() {
+            return ((LogbackMDCAdapter) MDC.getMDCAdapter()).getPropertyMap();
+        }
+    }
+}
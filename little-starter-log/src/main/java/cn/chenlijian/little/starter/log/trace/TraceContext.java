@@ -0,0 +1,30 @@
+package cn.chenlijian.little.starter.log.trace;
+
+import org.slf4j.MDC;
+
+/**
+ * 链路追踪上下文
+ * 当前线程的追踪 ID 保存在 MDC 的 {@value #TRACE_ID} 中，日志格式中使用 {@code %X{traceId}} 即可输出；
+ * 请求线程由 {@link TraceFilter} 设置，异步线程由 {@link ContextPropagatingTaskDecorator} 传递。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class TraceContext {
+
+    /**
+     * MDC 中追踪 ID 的 Key
+     */
+    public static final String TRACE_ID = "traceId";
+
+    private TraceContext() {
+    }
+
+    /**
+     * 获取当前线程的追踪 ID
+     *
+     * @return 追踪 ID，没有时返回 null
+     */
+    public static String getTraceId() {
+        return MDC.get(TRACE_ID);
+    }
+}
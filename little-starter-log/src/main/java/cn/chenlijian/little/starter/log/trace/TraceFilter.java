@@ -0,0 +1,54 @@
+package cn.chenlijian.little.starter.log.trace;
+
+import cn.chenlijian.little.starter.log.utils.LogUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 链路追踪过滤器
+ * 从请求头读取追踪 ID，没有时用 {@link TraceIdGenerator} 生成，然后：
+ * <ul>
+ *     <li>保存在请求属性中，{@link LogUtil#getTraceId} 和日志切面读取到的是同一个值；</li>
+ *     <li>写入同名响应头，调用方可以用它关联日志；</li>
+ *     <li>放入 MDC 的 {@value TraceContext#TRACE_ID}，请求结束后恢复原值。</li>
+ * </ul>
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class TraceFilter extends OncePerRequestFilter {
+
+    private final String traceIdKey;
+
+    /**
+     * 构造函数
+     *
+     * @param traceIdKey 请求头和响应头中追踪 ID 的 Key
+     */
+    public TraceFilter(String traceIdKey) {
+        this.traceIdKey = traceIdKey;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String traceId = LogUtil.getTraceId(request, traceIdKey);
+        response.setHeader(traceIdKey, traceId);
+        String previous = MDC.get(TraceContext.TRACE_ID);
+        MDC.put(TraceContext.TRACE_ID, traceId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (previous == null) {
+                MDC.remove(TraceContext.TRACE_ID);
+            } else {
+                MDC.put(TraceContext.TRACE_ID, previous);
+            }
+        }
+    }
+}
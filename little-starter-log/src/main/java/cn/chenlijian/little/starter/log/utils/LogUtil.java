@@ -3,9 +3,12 @@ package cn.chenlijian.little.starter.log.utils;
 import cn.chenlijian.little.common.biz.log.annotaion.ApiLog;
 import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
 import cn.chenlijian.little.common.constant.StrPool;
+import cn.chenlijian.little.starter.log.trace.TraceIdGenerator;
 import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
@@ -14,6 +17,11 @@ import java.lang.reflect.Method;
 
 @Slf4j
 public class LogUtil {
+    /**
+     * 保存追踪ID的请求属性
+     */
+    public static final String TRACE_ID_ATTRIBUTE = LogUtil.class.getName() + ".TRACE_ID";
+
     private LogUtil() {
     }
 
@@ -37,19 +45,46 @@ public class LogUtil {
     /**
      * 从HTTP请求中获取追踪ID
      * 追踪ID用于跟踪和监控请求在系统中的处理过程，有助于问题定位和性能分析
+     * 请求头中没有追踪ID时生成一个新的，保存在请求属性 {@link #TRACE_ID_ATTRIBUTE} 中，同一请求中多次获取得到相同的值
      *
      * @param request HTTP请求对象，不能为空
      * @param traceIdKey 追踪ID的键名，用于从请求头中获取追踪ID
-     * @return 返回追踪ID字符串，如果请求中没有对应的追踪ID，则返回null
+     * @return 返回追踪ID字符串，如果请求对象为空，则返回null
      */
     public static String getTraceId(HttpServletRequest request, String traceIdKey) {
         // 检查请求对象是否非空，以避免空指针异常
-        if (request != null) {
-            // 从请求头中获取追踪ID，并返回
-            return request.getHeader(traceIdKey);
+        if (request == null) {
+            // 如果请求对象为空，则返回null，表示无法获取追踪ID
+            return null;
+        }
+        if (request.getAttribute(TRACE_ID_ATTRIBUTE) instanceof String traceId) {
+            return traceId;
+        }
+        // 从请求头中获取追踪ID，没有时生成一个新的
+        String traceId = request.getHeader(traceIdKey);
+        if (StrUtil.isBlank(traceId)) {
+            traceId = TraceIdGenerator.next();
+        }
+        request.setAttribute(TRACE_ID_ATTRIBUTE, traceId);
+        return traceId;
+    }
+
+    /**
+     * 把追踪ID写入响应头，调用方和下游可以用它关联日志
+     * 响应已经提交或已有该响应头时不做处理
+     *
+     * @param request    HTTP请求对象
+     * @param response   HTTP响应对象
+     * @param traceIdKey 追踪ID的键名
+     */
+    public static void propagateTraceId(HttpServletRequest request, HttpServletResponse response, String traceIdKey) {
+        if (request == null || response == null || response.isCommitted() || response.containsHeader(traceIdKey)) {
+            return;
+        }
+        String traceId = getTraceId(request, traceIdKey);
+        if (traceId != null) {
+            response.setHeader(traceIdKey, traceId);
         }
-        // 如果请求对象为空，则返回null，表示无法获取追踪ID
-        return null;
     }
 
 
@@ -1,6 +1,7 @@
 package cn.chenlijian.little.starter.log.utils;
 
 import cn.chenlijian.little.common.constant.StrPool;
+import cn.chenlijian.little.common.utils.ClientIpResolver;
 import cn.hutool.core.util.StrUtil;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
@@ -38,33 +39,17 @@ public class WebUtil extends org.springframework.web.util.WebUtils {
 
     /**
      * 获取ip
+     * 使用默认可信代理（回环、私有和链路本地地址）解析 Forwarded / X-Forwarded-For，
+     * 同一请求中已经用默认解析器解析过时直接返回请求属性中的结果，不会读到按配置创建的解析器的结果
      *
      * @param request HttpServletRequest
      * @return {String}
+     * @see ClientIpResolver
      */
     @Nullable
     public static String getIP(HttpServletRequest request) {
         Assert.notNull(request, "HttpServletRequest is null");
-        String ip = request.getHeader("X-Requested-For");
-        if (StrUtil.isBlank(ip) || UN_KNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("X-Forwarded-For");
-        }
-        if (StrUtil.isBlank(ip) || UN_KNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (StrUtil.isBlank(ip) || UN_KNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (StrUtil.isBlank(ip) || UN_KNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
-        }
-        if (StrUtil.isBlank(ip) || UN_KNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-        }
-        if (StrUtil.isBlank(ip) || UN_KNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        return StrUtil.isBlank(ip) ? null : ip.split(",")[0];
+        return ClientIpResolver.DEFAULT.resolve(request);
     }
 
     /***
@@ -1,17 +1,30 @@
 package cn.chenlijian.little.starter.security;
 
+import cn.chenlijian.little.common.context.ContextFilter;
+import cn.chenlijian.little.common.utils.ClientIpResolver;
 import cn.chenlijian.little.starter.security.aspect.UriSecurityAspect;
+import cn.chenlijian.little.starter.security.authority.AuthorityResolver;
+import cn.chenlijian.little.starter.security.authority.CachingAuthorityResolver;
+import cn.chenlijian.little.starter.security.authority.ClaimsAuthorityResolver;
+import cn.chenlijian.little.starter.security.authority.UserDetailsAuthorityResolver;
 import cn.chenlijian.little.starter.security.filter.JwtAuthenticationFilter;
+import cn.chenlijian.little.starter.security.jwks.JwksKeyStore;
 import cn.chenlijian.little.starter.security.props.LittleSecurityProperties;
 import cn.chenlijian.little.starter.security.utils.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.Ordered;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -44,10 +57,60 @@ public class LittleSecurityAutoConfiguration {
         log.info("Initializing little-starter-security successfully.");
     }
 
+    /**
+     * 创建 JWT 身份验证过滤器
+     * 容器中有 ClientIpResolver（例如日志模块提供的）时复用其可信代理配置，否则使用默认的可信代理
+     *
+     * @param authorityResolver 权限解析器
+     * @param jwtUtil           JWT 工具类
+     * @param clientIpResolver  客户端 IP 解析器
+     * @return JwtAuthenticationFilter 实例
+     */
     @Bean
     @ConditionalOnMissingBean
-    public JwtAuthenticationFilter jwtAuthenticationFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
-        return new JwtAuthenticationFilter(userDetailsService, jwtUtil);
+    public JwtAuthenticationFilter jwtAuthenticationFilter(AuthorityResolver authorityResolver, JwtUtil jwtUtil,
+                                                           ObjectProvider<ClientIpResolver> clientIpResolver) {
+        return new JwtAuthenticationFilter(authorityResolver, jwtUtil, clientIpResolver.getIfAvailable(() -> ClientIpResolver.DEFAULT));
+    }
+
+    /**
+     * 创建并注册请求上下文过滤器，排在 Spring Security 过滤链之前：请求开始和结束时清理 ContextUtil 的线程变量，
+     * 异步派发时从请求属性中恢复 JwtAuthenticationFilter 保存的上下文
+     * 日志模块也会注册同名的过滤器，容器中只保留一个
+     *
+     * @return FilterRegistrationBean 包含过滤器注册信息的Bean
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnMissingBean(name = "contextFilter")
+    public FilterRegistrationBean<ContextFilter> contextFilter() {
+        FilterRegistrationBean<ContextFilter> registration = new FilterRegistrationBean<>(new ContextFilter());
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * 创建权限解析器
+     * 默认通过 UserDetailsService 加载权限；开启 authority-cache.enabled 后缓存加载结果；
+     * 开启 authority-cache.use-token-claims 后优先使用令牌中携带的权限
+     *
+     * @param userDetailsService 用户服务
+     * @param meterRegistry      指标注册中心
+     * @return AuthorityResolver 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AuthorityResolver authorityResolver(UserDetailsService userDetailsService, ObjectProvider<MeterRegistry> meterRegistry) {
+        LittleSecurityProperties.AuthorityCache cacheProperties = properties.getAuthorityCache();
+        AuthorityResolver resolver = new UserDetailsAuthorityResolver(userDetailsService);
+        if (cacheProperties.isEnabled()) {
+            resolver = new CachingAuthorityResolver(resolver, cacheProperties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        }
+        if (cacheProperties.isUseTokenClaims()) {
+            resolver = new ClaimsAuthorityResolver(resolver);
+        }
+        return resolver;
     }
 
     /**
@@ -76,8 +139,10 @@ public class LittleSecurityAutoConfiguration {
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> {
                     // 批量配置不需要认证的请求路径
-                    for (String path : properties.getExcludePaths()) {
-                        auth.requestMatchers(path).permitAll();
+                    if (properties.getExcludePaths() != null) {
+                        for (String path : properties.getExcludePaths()) {
+                            auth.requestMatchers(path).permitAll();
+                        }
                     }
                     // 配置所有其他请求需要认证
                     auth.anyRequest().authenticated();
@@ -92,7 +157,20 @@ public class LittleSecurityAutoConfiguration {
     }
 
     @Bean
-    public JwtUtil jwtUtil() {
-        return new JwtUtil(properties);
+    public JwtUtil jwtUtil(ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<JwksKeyStore> jwksKeyStore) {
+        return new JwtUtil(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), jwksKeyStore.getIfAvailable());
+    }
+
+    /**
+     * 创建 JWKS 密钥库，little.security.jwks.enabled=true 时生效
+     *
+     * @param meterRegistry 指标注册中心
+     * @return JwksKeyStore 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = LittleSecurityProperties.PREFIX + ".jwks", name = "enabled", havingValue = "true")
+    public JwksKeyStore jwksKeyStore(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JwksKeyStore(properties.getJwks(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
 }
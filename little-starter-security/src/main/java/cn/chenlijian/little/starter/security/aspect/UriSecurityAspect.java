@@ -1,15 +1,20 @@
 package cn.chenlijian.little.starter.security.aspect;
 
 import cn.chenlijian.little.common.biz.security.annotation.PreAuth;
+import cn.chenlijian.little.common.utils.CompiledPathMatcher;
+import cn.chenlijian.little.starter.security.authority.AuthorityExpression;
+import cn.chenlijian.little.starter.security.authority.AuthoritySet;
 import cn.chenlijian.little.starter.security.props.LittleSecurityProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,21 +23,41 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Aspect
 public class UriSecurityAspect implements ApplicationContextAware {
 
+    /**
+     * 请求属性名，保存当前请求归一化后的用户权限
+     */
+    private static final String AUTHORITY_SET_ATTRIBUTE = AuthoritySet.class.getName();
+    /**
+     * 没有 {@link PreAuth} 注解时的占位值
+     */
+    private static final AuthorityExpression NONE = AuthorityExpression.parse("permit()", true);
+
     /**
      * 表达式处理
      */
     private final LittleSecurityProperties properties;
+    /**
+     * 排除路径在启动时编译一次，匹配规则与 Spring Security 的 requestMatchers 一致
+     */
+    private final CompiledPathMatcher excludePathMatcher;
+    /**
+     * 每个方法解析后的权限表达式，方法上没有注解时使用类上的注解
+     */
+    private final Map<Method, AuthorityExpression> expressionCache = new ConcurrentHashMap<>();
     private ApplicationContext applicationContext;
 
 
     public UriSecurityAspect(LittleSecurityProperties properties) {
         this.properties = properties;
+        this.excludePathMatcher = CompiledPathMatcher.compile(properties.getExcludePaths());
     }
 
     /**
@@ -74,7 +99,7 @@ public class UriSecurityAspect implements ApplicationContextAware {
         String requestURI = Objects.requireNonNull(attributes).getRequest().getRequestURI();
 
         // 排除路径检查
-        if (properties.getExcludePaths().contains(requestURI)) {
+        if (excludePathMatcher.matches(requestURI)) {
             return;
         }
 
@@ -83,20 +108,15 @@ public class UriSecurityAspect implements ApplicationContextAware {
             throw new RuntimeException("User not authenticated.");
         }
 
-        PreAuth preAuth = getPreAuthAnnotation(joinPoint);
-        if (preAuth == null) {
+        AuthorityExpression expression = getExpression(joinPoint);
+        if (expression.isPermitAll()) {
             return;
         }
 
-        String requiredPermission = preAuth.value();
-        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-
-        boolean hasPermission = authorities.stream()
-                .anyMatch(a -> isAuthorityMatch(requiredPermission, a.getAuthority(), properties.getCaseSensitive()));
-
-        if (!hasPermission) {
-            log.debug("Access denied for URI: {}, required permission: {}", requestURI, requiredPermission);
-            throw new RuntimeException("Permission denied: " + requiredPermission);
+        AuthoritySet authorities = getAuthoritySet(attributes, authentication);
+        if (!expression.test(authorities)) {
+            log.debug("Access denied for URI: {}, required permission: {}", requestURI, expression);
+            throw new RuntimeException("Permission denied: " + expression);
         }
 
     }
@@ -106,9 +126,36 @@ public class UriSecurityAspect implements ApplicationContextAware {
         this.applicationContext = applicationContext;
     }
 
-    private PreAuth getPreAuthAnnotation(ProceedingJoinPoint joinPoint) {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        return method.getAnnotation(PreAuth.class);
+    /**
+     * 获取方法对应的权限表达式，首次调用时解析并缓存
+     */
+    private AuthorityExpression getExpression(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget() == null ? method.getDeclaringClass() : AopUtils.getTargetClass(joinPoint.getTarget());
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        return expressionCache.computeIfAbsent(specificMethod, m -> {
+            PreAuth preAuth = getPreAuthAnnotation(m, targetClass);
+            return preAuth == null ? NONE : AuthorityExpression.parse(preAuth.value(), Boolean.TRUE.equals(properties.getCaseSensitive()));
+        });
+    }
+
+    private PreAuth getPreAuthAnnotation(Method method, Class<?> targetClass) {
+        PreAuth preAuth = AnnotatedElementUtils.findMergedAnnotation(method, PreAuth.class);
+        return preAuth != null ? preAuth : AnnotatedElementUtils.findMergedAnnotation(targetClass, PreAuth.class);
+    }
+
+    /**
+     * 获取归一化后的用户权限，同一请求内只构造一次
+     */
+    private AuthoritySet getAuthoritySet(ServletRequestAttributes attributes, Authentication authentication) {
+        boolean caseSensitive = Boolean.TRUE.equals(properties.getCaseSensitive());
+        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+        Object cached = attributes.getAttribute(AUTHORITY_SET_ATTRIBUTE, ServletRequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof AuthoritySet set && set.isBuiltFrom(authorities, caseSensitive)) {
+            return set;
+        }
+        AuthoritySet set = AuthoritySet.of(authorities, caseSensitive);
+        attributes.setAttribute(AUTHORITY_SET_ATTRIBUTE, set, ServletRequestAttributes.SCOPE_REQUEST);
+        return set;
     }
 }
@@ -0,0 +1,139 @@
+package cn.chenlijian.little.starter.security.authority;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预解析的 {@code @PreAuth} 权限表达式
+ * 表达式在首次使用时解析一次，需要的权限提前归一化，判断时只做哈希查找。支持的写法：
+ * <ul>
+ *     <li>{@code permit()} / {@code permitAll()}：允许所有已认证用户</li>
+ *     <li>{@code denyAll()}：拒绝所有用户</li>
+ *     <li>{@code hasAuthority('user:add')} 或直接写 {@code user:add}：拥有该权限</li>
+ *     <li>{@code anyOf('user:add', 'user:edit')} / {@code hasAnyAuthority(...)}：拥有任一权限</li>
+ *     <li>{@code allOf('user:add', 'user:edit')}：拥有全部权限</li>
+ * </ul>
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class AuthorityExpression {
+
+    private enum Mode {
+        PERMIT, DENY, ANY, ALL
+    }
+
+    private final String expression;
+    private final Mode mode;
+    private final String[] required;
+
+    private AuthorityExpression(String expression, Mode mode, String[] required) {
+        this.expression = expression;
+        this.mode = mode;
+        this.required = required;
+    }
+
+    /**
+     * 解析权限表达式
+     *
+     * @param expression    表达式
+     * @param caseSensitive 是否区分大小写，需要与 {@link AuthoritySet} 一致
+     * @return 解析后的表达式
+     * @throws IllegalArgumentException 表达式无法解析
+     */
+    public static AuthorityExpression parse(String expression, boolean caseSensitive) {
+        String text = StrUtil.trim(expression);
+        if (StrUtil.isEmpty(text)) {
+            return new AuthorityExpression(text, Mode.PERMIT, new String[0]);
+        }
+        int open = text.indexOf('(');
+        if (open < 0 || !text.endsWith(")")) {
+            // 不是函数调用，整个字符串就是需要的权限
+            return new AuthorityExpression(text, Mode.ANY, new String[]{AuthoritySet.normalize(text, caseSensitive)});
+        }
+        String function = text.substring(0, open).trim();
+        List<String> arguments = parseArguments(text, text.substring(open + 1, text.length() - 1), caseSensitive);
+        Mode mode = switch (function) {
+            case "permit", "permitAll" -> Mode.PERMIT;
+            case "denyAll" -> Mode.DENY;
+            case "hasAuthority", "anyOf", "hasAnyAuthority" -> Mode.ANY;
+            case "allOf" -> Mode.ALL;
+            default -> throw new IllegalArgumentException("不支持的权限表达式: " + text);
+        };
+        if ((mode == Mode.ANY || mode == Mode.ALL) && arguments.isEmpty()) {
+            throw new IllegalArgumentException("权限表达式缺少参数: " + text);
+        }
+        if ("hasAuthority".equals(function) && arguments.size() != 1) {
+            throw new IllegalArgumentException("hasAuthority 只能有一个参数: " + text);
+        }
+        return new AuthorityExpression(text, mode, arguments.toArray(new String[0]));
+    }
+
+    /**
+     * 参数之间用逗号分隔，可以用单引号或双引号包裹
+     */
+    private static List<String> parseArguments(String text, String arguments, boolean caseSensitive) {
+        List<String> result = new ArrayList<>();
+        for (String argument : StrUtil.split(arguments, ',')) {
+            String value = argument.trim();
+            if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')) {
+                if (value.charAt(value.length() - 1) != value.charAt(0)) {
+                    throw new IllegalArgumentException("权限表达式的引号没有闭合: " + text);
+                }
+                value = value.substring(1, value.length() - 1).trim();
+            }
+            if (!value.isEmpty()) {
+                result.add(AuthoritySet.normalize(value, caseSensitive));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 判断用户权限是否满足表达式
+     *
+     * @param authorities 用户权限
+     * @return true 表示满足
+     */
+    public boolean test(AuthoritySet authorities) {
+        return switch (mode) {
+            case PERMIT -> true;
+            case DENY -> false;
+            case ANY -> containsAny(authorities);
+            case ALL -> containsAll(authorities);
+        };
+    }
+
+    private boolean containsAny(AuthoritySet authorities) {
+        for (String authority : required) {
+            if (authorities.containsNormalized(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean containsAll(AuthoritySet authorities) {
+        for (String authority : required) {
+            if (!authorities.containsNormalized(authority)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否不需要任何权限
+     *
+     * @return true 表示允许所有已认证用户
+     */
+    public boolean isPermitAll() {
+        return mode == Mode.PERMIT;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
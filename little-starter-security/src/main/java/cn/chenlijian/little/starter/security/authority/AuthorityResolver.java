@@ -0,0 +1,24 @@
+package cn.chenlijian.little.starter.security.authority;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * 权限解析器
+ * 根据已验证令牌中的用户名和 Claims 解析当前用户拥有的权限
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public interface AuthorityResolver {
+
+    /**
+     * 解析用户权限
+     *
+     * @param username 用户名
+     * @param claims   已验证令牌的 Claims
+     * @return 用户拥有的权限
+     */
+    Collection<? extends GrantedAuthority> resolve(String username, Claims claims);
+}
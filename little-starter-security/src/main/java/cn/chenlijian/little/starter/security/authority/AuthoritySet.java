@@ -0,0 +1,91 @@
+package cn.chenlijian.little.starter.security.authority;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 归一化后的用户权限集合
+ * 用户权限在每个请求中只归一化一次，之后的权限判断都是一次哈希查找，与用户拥有的权限数量无关。
+ * 不区分大小写时权限统一转换为小写。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public final class AuthoritySet {
+
+    private final Collection<? extends GrantedAuthority> source;
+    private final Set<String> authorities;
+    private final boolean caseSensitive;
+
+    private AuthoritySet(Collection<? extends GrantedAuthority> source, boolean caseSensitive) {
+        this.source = source;
+        this.caseSensitive = caseSensitive;
+        this.authorities = new HashSet<>(Math.max(16, source.size() * 4 / 3 + 1));
+        for (GrantedAuthority authority : source) {
+            String value = authority == null ? null : authority.getAuthority();
+            if (value != null) {
+                authorities.add(normalize(value, caseSensitive));
+            }
+        }
+    }
+
+    /**
+     * 根据用户权限构造权限集合
+     *
+     * @param authorities   用户拥有的权限
+     * @param caseSensitive 是否区分大小写
+     * @return 权限集合
+     */
+    public static AuthoritySet of(Collection<? extends GrantedAuthority> authorities, boolean caseSensitive) {
+        return new AuthoritySet(authorities == null ? Set.of() : authorities, caseSensitive);
+    }
+
+    /**
+     * 归一化权限字符串
+     *
+     * @param authority     权限
+     * @param caseSensitive 是否区分大小写
+     * @return 归一化后的权限
+     */
+    public static String normalize(String authority, boolean caseSensitive) {
+        return caseSensitive ? authority : authority.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 判断是否拥有已归一化的权限
+     *
+     * @param normalized 通过 {@link #normalize(String, boolean)} 归一化后的权限
+     * @return true 表示拥有
+     */
+    public boolean containsNormalized(String normalized) {
+        return authorities.contains(normalized);
+    }
+
+    /**
+     * 判断是否拥有权限
+     *
+     * @param authority 权限
+     * @return true 表示拥有
+     */
+    public boolean contains(String authority) {
+        return authority != null && authorities.contains(normalize(authority, caseSensitive));
+    }
+
+    /**
+     * 判断当前集合是否由指定的权限集合构造，用于在同一请求中复用
+     *
+     * @param authorities   用户拥有的权限
+     * @param caseSensitive 是否区分大小写
+     * @return true 表示可以复用
+     */
+    public boolean isBuiltFrom(Collection<? extends GrantedAuthority> authorities, boolean caseSensitive) {
+        return source == authorities && this.caseSensitive == caseSensitive;
+    }
+
+    public int size() {
+        return authorities.size();
+    }
+}
@@ -0,0 +1,153 @@
+package cn.chenlijian.little.starter.security.authority;
+
+import cn.chenlijian.little.starter.security.props.LittleSecurityProperties;
+import cn.hutool.cache.impl.LRUCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 带缓存的权限解析器
+ * 按用户名缓存后备解析器的结果，缓存有界且按写入时间过期。
+ * 缓存项的存活时间超过 {@code ttl * refreshAhead} 后，下一次命中会在后台线程中提前刷新，
+ * 当前请求仍然返回旧值，热点用户不会因为缓存过期而出现一次同步查询。
+ * 用户角色变更后可以调用 {@link #invalidate(String)} 立即失效。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class CachingAuthorityResolver implements AuthorityResolver, DisposableBean {
+
+    private final AuthorityResolver delegate;
+    private final LRUCache<String, CachedAuthorities> cache;
+    private final long ttl;
+    /**
+     * 存活时间超过该值后触发提前刷新，0 表示不提前刷新
+     */
+    private final long refreshAfter;
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final Counter cacheHit;
+    private final Counter cacheMiss;
+    private final Counter refreshFailure;
+
+    /**
+     * 构造函数
+     *
+     * @param delegate   后备解析器，缓存未命中或提前刷新时调用
+     * @param properties 权限缓存配置
+     * @param registry   指标注册中心
+     */
+    public CachingAuthorityResolver(AuthorityResolver delegate, LittleSecurityProperties.AuthorityCache properties, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.ttl = properties.getTtl();
+        this.cache = new LRUCache<>(Math.max(1, properties.getMaxSize()), ttl);
+        double refreshAhead = properties.getRefreshAhead();
+        this.refreshAfter = refreshAhead > 0 && refreshAhead < 1 ? (long) (ttl * refreshAhead) : 0;
+        this.refreshExecutor = refreshAfter > 0 ? createRefreshExecutor() : null;
+        this.cacheHit = Counter.builder("little.security.authority.cache").tag("result", "hit")
+                .description("权限缓存命中次数").register(registry);
+        this.cacheMiss = Counter.builder("little.security.authority.cache").tag("result", "miss")
+                .description("权限缓存未命中次数").register(registry);
+        this.refreshFailure = Counter.builder("little.security.authority.refresh.failure")
+                .description("权限缓存后台刷新失败次数").register(registry);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> resolve(String username, Claims claims) {
+        // 不更新最后访问时间，缓存项按写入时间过期
+        CachedAuthorities cached = cache.get(username, false);
+        if (cached != null) {
+            cacheHit.increment();
+            if (refreshAfter > 0 && System.currentTimeMillis() - cached.loadedAt > refreshAfter) {
+                refreshAsync(username, claims, cached);
+            }
+            return cached.authorities;
+        }
+        cacheMiss.increment();
+        return load(username, claims).authorities;
+    }
+
+    /**
+     * 使指定用户的缓存失效，下一次请求会重新加载权限
+     *
+     * @param username 用户名
+     */
+    public void invalidate(String username) {
+        cache.remove(username);
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    private CachedAuthorities load(String username, Claims claims) {
+        CachedAuthorities loaded = new CachedAuthorities(List.copyOf(delegate.resolve(username, claims)));
+        cache.put(username, loaded, ttl);
+        return loaded;
+    }
+
+    /**
+     * 同一缓存项同一时刻只提交一次刷新任务，刷新失败时保留旧值直到过期
+     */
+    private void refreshAsync(String username, Claims claims, CachedAuthorities cached) {
+        if (!cached.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(username, claims);
+                } catch (Exception e) {
+                    refreshFailure.increment();
+                    cached.refreshing.set(false);
+                    log.warn("刷新用户 {} 的权限失败", username, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cached.refreshing.set(false);
+        }
+    }
+
+    private static ThreadPoolExecutor createRefreshExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256), r -> {
+            Thread thread = new Thread(r, "little-security-authority-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 缓存项
+     */
+    private static final class CachedAuthorities {
+        private final List<GrantedAuthority> authorities;
+        private final long loadedAt = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CachedAuthorities(List<GrantedAuthority> authorities) {
+            this.authorities = authorities;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cn.chenlijian.little.starter.security.authority;
+
+import cn.chenlijian.little.starter.security.constant.AuthConstants;
+import cn.hutool.core.util.StrUtil;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 优先从令牌中读取权限的解析器
+ * 令牌携带 {@link AuthConstants#PERMS} 或 {@link AuthConstants#ROLES} 声明时直接构造权限，不再查询用户；
+ * 否则交给后备解析器。角色会补齐 {@code ROLE_} 前缀。
+ * <p>
+ * 令牌中的权限在签发时确定，用户权限变更后需要等旧令牌过期或重新签发才会生效。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@RequiredArgsConstructor
+public class ClaimsAuthorityResolver implements AuthorityResolver {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final AuthorityResolver fallback;
+
+    @Override
+    public Collection<? extends GrantedAuthority> resolve(String username, Claims claims) {
+        Object perms = claims == null ? null : claims.get(AuthConstants.PERMS);
+        Object roles = claims == null ? null : claims.get(AuthConstants.ROLES);
+        if (perms == null && roles == null) {
+            return fallback.resolve(username, claims);
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        addAll(authorities, perms, false);
+        addAll(authorities, roles, true);
+        return authorities;
+    }
+
+    /**
+     * 声明值可以是 JSON 数组，也可以是逗号分隔的字符串
+     */
+    private static void addAll(List<GrantedAuthority> authorities, Object value, boolean role) {
+        if (value instanceof Collection<?> values) {
+            for (Object item : values) {
+                add(authorities, item == null ? null : item.toString(), role);
+            }
+        } else if (value != null) {
+            for (String item : StrUtil.split(value.toString(), ',')) {
+                add(authorities, item, role);
+            }
+        }
+    }
+
+    private static void add(List<GrantedAuthority> authorities, String authority, boolean role) {
+        if (StrUtil.isBlank(authority)) {
+            return;
+        }
+        authority = authority.trim();
+        if (role && !authority.startsWith(ROLE_PREFIX)) {
+            authority = ROLE_PREFIX + authority;
+        }
+        authorities.add(new SimpleGrantedAuthority(authority));
+    }
+}
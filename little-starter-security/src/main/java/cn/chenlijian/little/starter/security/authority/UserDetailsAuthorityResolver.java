@@ -0,0 +1,24 @@
+package cn.chenlijian.little.starter.security.authority;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.Collection;
+
+/**
+ * 基于 {@link UserDetailsService} 的权限解析器，每次调用都会重新加载用户
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@RequiredArgsConstructor
+public class UserDetailsAuthorityResolver implements AuthorityResolver {
+
+    private final UserDetailsService userDetailsService;
+
+    @Override
+    public Collection<? extends GrantedAuthority> resolve(String username, Claims claims) {
+        return userDetailsService.loadUserByUsername(username).getAuthorities();
+    }
+}
@@ -1,20 +1,27 @@
 package cn.chenlijian.little.starter.security.filter;
 
+import cn.chenlijian.little.common.constant.ContextConstants;
+import cn.chenlijian.little.common.context.ContextFilter;
+import cn.chenlijian.little.common.context.ContextHolder;
+import cn.chenlijian.little.common.context.LittleContext;
+import cn.chenlijian.little.common.utils.ClientIpResolver;
+import cn.chenlijian.little.starter.security.authority.AuthorityResolver;
 import cn.chenlijian.little.starter.security.exception.ExpiredJwtException;
 import cn.chenlijian.little.starter.security.exception.InvalidJwtTokenException;
 import cn.chenlijian.little.starter.security.utils.JwtUtil;
+import cn.hutool.core.convert.Convert;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -27,9 +34,12 @@ import java.util.Collection;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final UserDetailsService userDetailsService;
+    // 权限解析器，根据令牌解析用户权限
+    private final AuthorityResolver authorityResolver;
     // JWT工具类，用于处理JWT令牌的解析和验证
     private final JwtUtil jwtUtil;
+    // 客户端 IP 解析器，解析结果保存在请求属性中，日志模块可直接复用
+    private final ClientIpResolver clientIpResolver;
 
     /**
      * 执行过滤器的主要方法
@@ -44,6 +54,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        LittleContext context;
         try {
             String token = jwtUtil.extractToken(request);
             if (token == null) {
@@ -65,15 +76,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 throw new InvalidJwtTokenException("Invalid JWT token");
             }
 
-            UserDetails userDetail = this.userDetailsService.loadUserByUsername(username);
-            Collection<? extends GrantedAuthority> authorities = userDetail.getAuthorities();
+            Collection<? extends GrantedAuthority> authorities = authorityResolver.resolve(username, claims);
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(username, null, authorities);
+            // 认证详情中记录经过可信代理解析后的客户端 IP，而不是直连的代理地址
+            HttpSession session = request.getSession(false);
+            authentication.setDetails(new WebAuthenticationDetails(clientIpResolver.resolve(request), session == null ? null : session.getId()));
 
             log.trace("Setting authentication for user: {}", username);
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            context = buildContext(username, claims);
+            // 异步派发不再经过本过滤器，由 ContextFilter 从请求属性中恢复上下文
+            request.setAttribute(ContextFilter.CONTEXT_ATTRIBUTE, context);
         } catch (InvalidJwtTokenException e) {
-            log.warn("JWT validation failed: {}. Stack trace: ", e.getMessage(), e);
+            log.warn("JWT validation failed from {}: {}. Stack trace: ", clientIpResolver.resolve(request), e.getMessage(), e);
             SecurityContextHolder.clearContext();
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
             return;
@@ -84,8 +100,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        filterChain.doFilter(request, response);
+        // 后续过滤器和业务代码在上下文的绑定范围内执行，请求结束后自动解除绑定
+        try {
+            ContextHolder.call(context, () -> {
+                filterChain.doFilter(request, response);
+                return null;
+            });
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
     }
 
-
+    /**
+     * 根据令牌构造请求上下文，用户id按 Long 保存，读取时不再转换
+     */
+    private LittleContext buildContext(String username, Claims claims) {
+        Object userId = claims.get(ContextConstants.JWT_KEY_USER_ID);
+        Object name = claims.get(ContextConstants.JWT_KEY_NAME);
+        Object account = claims.get(ContextConstants.JWT_KEY_ACCOUNT);
+        return LittleContext.builder()
+                .userId(userId instanceof Number number ? Long.valueOf(number.longValue()) : Convert.toLong(userId))
+                .username(name == null ? username : name.toString())
+                .account(account == null ? username : account.toString())
+                .build();
+    }
 }
@@ -0,0 +1,42 @@
+package cn.chenlijian.little.starter.security.jwks;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.Getter;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * JWKS 中的一个签名密钥
+ * 验签用的 {@link JwtParser} 在加载时构造，验证令牌时直接复用
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Getter
+public class JwkKey {
+
+    /**
+     * 密钥 ID，对应令牌头中的 kid
+     */
+    private final String kid;
+    /**
+     * 签名算法，令牌头中的 alg 必须与之一致
+     */
+    private final SignatureAlgorithm algorithm;
+    private final PublicKey publicKey;
+    /**
+     * 私钥，仅签发令牌的服务需要，JWK 中没有私钥参数时为 null
+     */
+    private final PrivateKey privateKey;
+    private final JwtParser parser;
+
+    JwkKey(String kid, SignatureAlgorithm algorithm, PublicKey publicKey, PrivateKey privateKey) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        this.parser = Jwts.parserBuilder().setSigningKey(publicKey).build();
+    }
+}
@@ -0,0 +1,360 @@
+package cn.chenlijian.little.starter.security.jwks;
+
+import cn.chenlijian.little.starter.security.exception.InvalidJwtTokenException;
+import cn.chenlijian.little.starter.security.props.LittleSecurityProperties;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPrivateKeySpec;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPrivateCrtKeySpec;
+import java.security.spec.RSAPrivateKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 本地 JWKS 密钥库
+ * 从 JWKS 文件或目录加载 RSA（RS256/RS384/RS512）和 EC（ES256/ES384/ES512）公钥，按 kid 查找验签密钥。
+ * 加载结果是不可变快照，通过 volatile 引用整体替换，验证令牌时不加锁；
+ * 后台线程定期检查文件的修改时间和大小，变更后重新加载，加载失败时保留旧快照。
+ * <p>
+ * 同一密钥签发的令牌头完全相同，快照中按编码后的令牌头缓存查找结果，命中后无需再解码令牌头。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class JwksKeyStore implements DisposableBean {
+
+    /**
+     * 每个快照最多缓存的令牌头数量，防止伪造的令牌头撑满内存
+     */
+    private static final int MAX_CACHED_HEADERS = 256;
+
+    private final Path location;
+    private final String signingKeyId;
+    private final ScheduledExecutorService reloader;
+    private final Counter reloadSuccess;
+    private final Counter reloadFailure;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 构造函数，立即加载密钥，加载失败时抛出异常
+     *
+     * @param properties JWKS 配置
+     * @param registry   指标注册中心
+     */
+    public JwksKeyStore(LittleSecurityProperties.Jwks properties, MeterRegistry registry) {
+        if (StrUtil.isBlank(properties.getLocation())) {
+            throw new IllegalArgumentException("JWKS location must be configured. Please set 'little.security.jwks.location'.");
+        }
+        this.location = Paths.get(properties.getLocation());
+        this.signingKeyId = StrUtil.emptyToNull(properties.getSigningKeyId());
+        try {
+            this.snapshot = load(fingerprint());
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed to load JWKS from " + location, e);
+        }
+        if (signingKeyId != null && getSigningKey() == null) {
+            throw new IllegalStateException("JWKS signing key '" + signingKeyId + "' not found or has no private key.");
+        }
+        this.reloadSuccess = Counter.builder("little.security.jwks.reload").tag("result", "success")
+                .description("JWKS 重新加载成功次数").register(registry);
+        this.reloadFailure = Counter.builder("little.security.jwks.reload").tag("result", "failure")
+                .description("JWKS 重新加载失败次数").register(registry);
+        Gauge.builder("little.security.jwks.keys", this, store -> store.snapshot.keys.size())
+                .description("已加载的 JWKS 密钥数量").register(registry);
+
+        if (properties.getReloadInterval() > 0) {
+            this.reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "little-security-jwks-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, properties.getReloadInterval(),
+                    properties.getReloadInterval(), TimeUnit.MILLISECONDS);
+        } else {
+            this.reloader = null;
+        }
+        log.info("JWKS key store loaded {} keys from {}", snapshot.keys.size(), location);
+    }
+
+    /**
+     * 根据令牌头选择验签密钥
+     *
+     * @param token JWT 令牌
+     * @return 验签密钥，令牌头中没有 kid 时返回 null
+     * @throws InvalidJwtTokenException 令牌头无法解析、kid 未知或 alg 与密钥不一致
+     */
+    public JwkKey resolve(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            throw new InvalidJwtTokenException("Invalid JWT token: missing header.");
+        }
+        Snapshot current = snapshot;
+        String header = token.substring(0, dot);
+        JwkKey cached = current.headers.get(header);
+        if (cached != null) {
+            return cached;
+        }
+        JSONObject json;
+        try {
+            json = JSONUtil.parseObj(new String(Base64.getUrlDecoder().decode(header), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new InvalidJwtTokenException("Invalid JWT token: malformed header.", e);
+        }
+        String kid = json.getStr("kid");
+        if (kid == null) {
+            return null;
+        }
+        JwkKey key = current.keys.get(kid);
+        if (key == null) {
+            throw new InvalidJwtTokenException("Invalid JWT token: unknown key id " + kid);
+        }
+        if (!key.getAlgorithm().getValue().equals(json.getStr("alg"))) {
+            throw new InvalidJwtTokenException("Invalid JWT token: algorithm does not match key " + kid);
+        }
+        if (current.headers.size() < MAX_CACHED_HEADERS) {
+            current.headers.put(header, key);
+        }
+        return key;
+    }
+
+    /**
+     * 获取签发令牌使用的密钥
+     *
+     * @return 签名密钥，未配置 signing-key-id 或密钥不含私钥时返回 null
+     */
+    public JwkKey getSigningKey() {
+        if (signingKeyId == null) {
+            return null;
+        }
+        JwkKey key = snapshot.keys.get(signingKeyId);
+        return key != null && key.getPrivateKey() != null ? key : null;
+    }
+
+    /**
+     * 获取当前已加载的密钥
+     *
+     * @return kid 到密钥的只读映射
+     */
+    public Map<String, JwkKey> getKeys() {
+        return snapshot.keys;
+    }
+
+    /**
+     * 文件有变更时重新加载，由后台线程调用
+     */
+    private void reloadIfChanged() {
+        try {
+            String fingerprint = fingerprint();
+            if (fingerprint.equals(snapshot.fingerprint)) {
+                return;
+            }
+            Snapshot loaded = load(fingerprint);
+            if (signingKeyId != null && (loaded.keys.get(signingKeyId) == null || loaded.keys.get(signingKeyId).getPrivateKey() == null)) {
+                throw new IllegalStateException("signing key '" + signingKeyId + "' not found or has no private key");
+            }
+            snapshot = loaded;
+            reloadSuccess.increment();
+            log.info("JWKS reloaded {} keys from {}", loaded.keys.size(), location);
+        } catch (Exception e) {
+            reloadFailure.increment();
+            log.warn("重新加载 JWKS 失败，继续使用已加载的密钥: {}", location, e);
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        if (!Files.isDirectory(location)) {
+            return List.of(location);
+        }
+        try (Stream<Path> stream = Files.list(location)) {
+            return stream.filter(file -> {
+                String name = file.getFileName().toString();
+                return Files.isRegularFile(file) && (name.endsWith(".json") || name.endsWith(".jwks"));
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * 文件列表、修改时间和大小组成的指纹，用于判断文件是否变更
+     */
+    private String fingerprint() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (Path file : files()) {
+            builder.append(file).append(':')
+                    .append(Files.getLastModifiedTime(file).toMillis()).append(':')
+                    .append(Files.size(file)).append(';');
+        }
+        return builder.toString();
+    }
+
+    private Snapshot load(String fingerprint) throws IOException {
+        Map<String, JwkKey> keys = new HashMap<>();
+        for (Path file : files()) {
+            JSONObject json = JSONUtil.parseObj(Files.readString(file, StandardCharsets.UTF_8));
+            List<JSONObject> jwks = new ArrayList<>();
+            JSONArray array = json.getJSONArray("keys");
+            if (array != null) {
+                for (int i = 0; i < array.size(); i++) {
+                    jwks.add(array.getJSONObject(i));
+                }
+            } else {
+                jwks.add(json);
+            }
+            for (JSONObject jwk : jwks) {
+                JwkKey key = toKey(jwk, file);
+                if (key != null && keys.put(key.getKid(), key) != null) {
+                    log.warn("JWKS 中存在重复的 kid {}，使用 {} 中的密钥", key.getKid(), file);
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("no usable signing keys found");
+        }
+        return new Snapshot(fingerprint, Map.copyOf(keys));
+    }
+
+    /**
+     * 把 JWK 转换为密钥，不支持的密钥类型返回 null
+     */
+    private static JwkKey toKey(JSONObject jwk, Path file) {
+        String kid = jwk.getStr("kid");
+        String kty = jwk.getStr("kty");
+        if (StrUtil.isBlank(kid)) {
+            log.warn("忽略 {} 中没有 kid 的密钥", file);
+            return null;
+        }
+        if ("enc".equals(jwk.getStr("use"))) {
+            return null;
+        }
+        try {
+            if ("RSA".equals(kty)) {
+                return toRsaKey(kid, jwk);
+            }
+            if ("EC".equals(kty)) {
+                return toEcKey(kid, jwk);
+            }
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new IllegalStateException("Invalid JWK " + kid + " in " + file, e);
+        }
+        log.warn("忽略 {} 中不支持的密钥类型 {}（kid: {}）", file, kty, kid);
+        return null;
+    }
+
+    private static JwkKey toRsaKey(String kid, JSONObject jwk) throws GeneralSecurityException {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(StrUtil.blankToDefault(jwk.getStr("alg"), "RS256"));
+        if (!algorithm.isRsa()) {
+            throw new IllegalArgumentException("alg " + algorithm.getValue() + " is not an RSA algorithm");
+        }
+        KeyFactory factory = KeyFactory.getInstance("RSA");
+        BigInteger modulus = integer(jwk, "n");
+        PublicKey publicKey = factory.generatePublic(new RSAPublicKeySpec(modulus, integer(jwk, "e")));
+        PrivateKey privateKey = null;
+        if (jwk.containsKey("d")) {
+            if (jwk.containsKey("p")) {
+                privateKey = factory.generatePrivate(new RSAPrivateCrtKeySpec(modulus, integer(jwk, "e"), integer(jwk, "d"),
+                        integer(jwk, "p"), integer(jwk, "q"), integer(jwk, "dp"), integer(jwk, "dq"), integer(jwk, "qi")));
+            } else {
+                privateKey = factory.generatePrivate(new RSAPrivateKeySpec(modulus, integer(jwk, "d")));
+            }
+        }
+        return new JwkKey(kid, algorithm, publicKey, privateKey);
+    }
+
+    private static JwkKey toEcKey(String kid, JSONObject jwk) throws GeneralSecurityException {
+        String crv = jwk.getStr("crv");
+        String curve;
+        SignatureAlgorithm defaultAlgorithm;
+        switch (StrUtil.nullToEmpty(crv)) {
+            case "P-256" -> {
+                curve = "secp256r1";
+                defaultAlgorithm = SignatureAlgorithm.ES256;
+            }
+            case "P-384" -> {
+                curve = "secp384r1";
+                defaultAlgorithm = SignatureAlgorithm.ES384;
+            }
+            case "P-521" -> {
+                curve = "secp521r1";
+                defaultAlgorithm = SignatureAlgorithm.ES512;
+            }
+            default -> throw new IllegalArgumentException("unsupported EC curve " + crv);
+        }
+        String alg = jwk.getStr("alg");
+        SignatureAlgorithm algorithm = alg == null ? defaultAlgorithm : SignatureAlgorithm.forName(alg);
+        if (algorithm != defaultAlgorithm) {
+            throw new IllegalArgumentException("alg " + alg + " does not match curve " + crv);
+        }
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec(curve));
+        ECParameterSpec spec = parameters.getParameterSpec(ECParameterSpec.class);
+        KeyFactory factory = KeyFactory.getInstance("EC");
+        PublicKey publicKey = factory.generatePublic(new ECPublicKeySpec(new ECPoint(integer(jwk, "x"), integer(jwk, "y")), spec));
+        PrivateKey privateKey = jwk.containsKey("d") ? factory.generatePrivate(new ECPrivateKeySpec(integer(jwk, "d"), spec)) : null;
+        return new JwkKey(kid, algorithm, publicKey, privateKey);
+    }
+
+    private static BigInteger integer(JSONObject jwk, String name) {
+        String value = jwk.getStr(name);
+        if (value == null) {
+            throw new IllegalArgumentException("missing JWK parameter " + name);
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+
+    @Override
+    public void destroy() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * 一次加载的结果，整体替换
+     */
+    private static final class Snapshot {
+        private final String fingerprint;
+        private final Map<String, JwkKey> keys;
+        /**
+         * 编码后的令牌头到密钥的缓存，只缓存带 kid 且校验通过的令牌头
+         */
+        private final Map<String, JwkKey> headers = new ConcurrentHashMap<>();
+
+        private Snapshot(String fingerprint, Map<String, JwkKey> keys) {
+            this.fingerprint = fingerprint;
+            this.keys = keys;
+        }
+    }
+}
@@ -40,4 +40,108 @@ public class LittleSecurityProperties {
     private long jwtExpiration = 86400000; // 24小时
     private String jwtHeader = "Authorization";
     private String jwtHeaderPrefix = "Bearer ";
+
+    /**
+     * 已验证令牌的缓存配置
+     */
+    private TokenCache tokenCache = new TokenCache();
+
+    /**
+     * 用户权限的解析配置
+     */
+    private AuthorityCache authorityCache = new AuthorityCache();
+
+    /**
+     * 非对称密钥（JWKS）验签配置
+     */
+    private Jwks jwks = new Jwks();
+
+    /**
+     * 已验证令牌的缓存配置
+     * 同一个令牌在有效期内会被客户端反复携带，缓存验证结果可以跳过重复的 Base64 解码、JSON 解析和签名校验
+     */
+    @Data
+    public static class TokenCache {
+        /**
+         * 是否启用令牌缓存
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最多缓存的令牌数量，超出后淘汰最久未使用的令牌
+         */
+        private int maxSize = 10000;
+
+        /**
+         * 缓存有效期（毫秒），实际有效期不超过令牌自身的过期时间
+         */
+        private long ttl = 5 * 60 * 1000;
+    }
+
+    /**
+     * 用户权限的解析配置
+     * 默认每个请求都通过 UserDetailsService 加载用户权限，可以开启缓存，或在令牌中直接携带权限
+     */
+    @Data
+    public static class AuthorityCache {
+        /**
+         * 是否缓存 UserDetailsService 加载的权限
+         */
+        private boolean enabled = false;
+
+        /**
+         * 最多缓存的用户数量
+         */
+        private int maxSize = 10000;
+
+        /**
+         * 缓存有效期（毫秒）
+         */
+        private long ttl = 5 * 60 * 1000;
+
+        /**
+         * 提前刷新比例，缓存项存活时间超过 ttl 的该比例后，下一次命中会在后台刷新，0 表示不提前刷新
+         */
+        private double refreshAhead = 0.8;
+
+        /**
+         * 令牌中携带 perms 或 roles 声明时是否直接使用，不再查询用户
+         * 开启后权限以签发时为准：禁用或删除的用户、撤销的角色和权限要等令牌过期后才生效，
+         * 只携带 roles 的令牌也不再包含数据库中加载的权限，需要令牌有效期足够短或签发方写入完整的权限
+         */
+        private boolean useTokenClaims = false;
+    }
+
+    /**
+     * 非对称密钥（JWKS）验签配置
+     * 启用后按令牌头中的 kid 从本地 JWKS 文件加载的公钥中选择验签密钥，验签服务无需持有签名密钥；
+     * 文件变更后自动重新加载，可以在不停机的情况下轮换密钥
+     */
+    @Data
+    public static class Jwks {
+        /**
+         * 是否启用 JWKS 验签
+         */
+        private boolean enabled = false;
+
+        /**
+         * JWKS 文件或目录，目录下所有 .json 和 .jwks 文件中的密钥会合并加载
+         */
+        private String location;
+
+        /**
+         * 检查文件变更的间隔（毫秒），0 表示不自动重新加载
+         */
+        private long reloadInterval = 10000;
+
+        /**
+         * 签发令牌使用的密钥 kid，对应的 JWK 需要包含私钥；为空时仍使用 jwt-secret 签发
+         */
+        private String signingKeyId;
+
+        /**
+         * 是否接受不带 kid 的 HMAC 令牌，用于从 jwt-secret 迁移到 JWKS 的过渡期
+         */
+        private boolean hmacFallback = false;
+    }
 }
\ No newline at end of file
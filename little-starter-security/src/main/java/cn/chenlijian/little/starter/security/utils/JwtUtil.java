@@ -1,21 +1,36 @@
 package cn.chenlijian.little.starter.security.utils;
 
+import cn.chenlijian.little.starter.security.constant.AuthConstants;
 import cn.chenlijian.little.starter.security.exception.ExpiredJwtException;
 import cn.chenlijian.little.starter.security.exception.InvalidJwtTokenException;
+import cn.chenlijian.little.starter.security.jwks.JwkKey;
+import cn.chenlijian.little.starter.security.jwks.JwksKeyStore;
 import cn.chenlijian.little.starter.security.props.LittleSecurityProperties;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -24,13 +39,37 @@ import java.util.Map;
 public class JwtUtil {
 
     public static final String SUB = "sub";
+    /**
+     * 令牌缓存清理过期令牌的最小间隔（毫秒）
+     */
+    private static final long TOKEN_CACHE_SWEEP_INTERVAL = 1000L;
     // JWT过期时间（毫秒）
     private final long expiration;
+    /**
+     * HMAC 密钥和对应的解析器，启用 JWKS 且不接受 HMAC 令牌时为 null
+     */
     private final SecretKey secretKey;
     private final JwtParser jwtParser;
+    /**
+     * JWKS 密钥库，未启用时为 null
+     */
+    private final JwksKeyStore keyStore;
     private final String jwtHeader;
     private final String jwtHeaderPrefix;
     private final int jwtHeaderPrefixLength;
+    /**
+     * 已验证令牌的缓存，键为令牌的 SHA-256 摘要，避免在内存中保留令牌原文；未启用时为 null
+     * 读取不加锁，写满后淘汰任意的令牌，过期令牌的全量清理每秒最多执行一次
+     */
+    private final Map<String, CachedClaims> tokenCache;
+    /**
+     * 下一次允许清理过期令牌的时间
+     */
+    private final AtomicLong nextTokenCacheSweep = new AtomicLong();
+    private final int tokenCacheMaxSize;
+    private final long tokenCacheTtl;
+    private final Counter cacheHit;
+    private final Counter cacheMiss;
 
     /**
      * 构造函数，初始化JWT密钥和过期时间
@@ -38,13 +77,37 @@ public class JwtUtil {
      * @param properties 安全配置属性对象
      */
     public JwtUtil(LittleSecurityProperties properties) {
+        this(properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * 构造函数，初始化JWT密钥、过期时间和令牌缓存
+     *
+     * @param properties 安全配置属性对象
+     * @param registry   指标注册中心，用于暴露令牌缓存的命中情况
+     */
+    public JwtUtil(LittleSecurityProperties properties, MeterRegistry registry) {
+        this(properties, registry, null);
+    }
+
+    /**
+     * 构造函数，初始化JWT密钥、过期时间、令牌缓存和 JWKS 密钥库
+     *
+     * @param properties 安全配置属性对象
+     * @param registry   指标注册中心，用于暴露令牌缓存的命中情况
+     * @param keyStore   JWKS 密钥库，为 null 时只使用 jwt-secret
+     */
+    public JwtUtil(LittleSecurityProperties properties, MeterRegistry registry, JwksKeyStore keyStore) {
         if (properties == null) {
             throw new IllegalArgumentException("LittleSecurityProperties must not be null.");
         }
+        this.keyStore = keyStore;
 
+        // 启用 JWKS 后，只有过渡期接受 HMAC 令牌时才需要 jwt-secret
+        boolean hmacEnabled = keyStore == null || (properties.getJwks() != null && properties.getJwks().isHmacFallback());
         String secret = properties.getJwtSecret();
         // 确保密钥不为空且长度足够，否则抛出异常
-        if (secret == null || secret.length() < 32) {
+        if (hmacEnabled && (secret == null || secret.length() < 32)) {
             throw new IllegalArgumentException(
                     "JWT secret must be configured with at least 32 characters. " +
                             "Please set 'little.security.jwt-secret' in your configuration file, " +
@@ -54,7 +117,7 @@ public class JwtUtil {
 
 
         this.expiration = properties.getJwtExpiration();
-        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)); // 指定 UTF-8 编码
+        this.secretKey = hmacEnabled ? Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)) : null; // 指定 UTF-8 编码
 
         this.jwtHeader = properties.getJwtHeader();
         this.jwtHeaderPrefix = properties.getJwtHeaderPrefix();
@@ -63,7 +126,23 @@ public class JwtUtil {
         }
         this.jwtHeaderPrefixLength = jwtHeaderPrefix.length();
 
-        this.jwtParser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+        this.jwtParser = hmacEnabled ? Jwts.parserBuilder().setSigningKey(secretKey).build() : null;
+
+        LittleSecurityProperties.TokenCache cacheProperties = properties.getTokenCache();
+        boolean cacheEnabled = cacheProperties != null && cacheProperties.isEnabled()
+                && cacheProperties.getMaxSize() > 0 && cacheProperties.getTtl() > 0;
+        this.tokenCache = cacheEnabled ? new ConcurrentHashMap<>(Math.min(cacheProperties.getMaxSize(), 1024)) : null;
+        this.tokenCacheMaxSize = cacheEnabled ? cacheProperties.getMaxSize() : 0;
+        this.tokenCacheTtl = cacheEnabled ? cacheProperties.getTtl() : 0;
+        this.cacheHit = Counter.builder("little.security.token.cache").tag("result", "hit")
+                .description("已验证令牌缓存命中次数").register(registry);
+        this.cacheMiss = Counter.builder("little.security.token.cache").tag("result", "miss")
+                .description("已验证令牌缓存未命中次数").register(registry);
+        if (tokenCache != null) {
+            Gauge.builder("little.security.token.cache.size", tokenCache, Map::size)
+                    .description("已验证令牌缓存中的令牌数量")
+                    .register(registry);
+        }
     }
 
 
@@ -79,6 +158,21 @@ public class JwtUtil {
         return generateToken(claims);
     }
 
+    /**
+     * 根据用户名和权限生成JWT Token
+     * 权限写入 {@link AuthConstants#PERMS} 声明，过滤器可以直接从令牌中读取权限，无需每次查询用户
+     *
+     * @param username    用户名
+     * @param authorities 用户权限
+     * @return 生成的Token字符串
+     */
+    public String generateToken(String username, Collection<String> authorities) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(SUB, username);
+        claims.put(AuthConstants.PERMS, List.copyOf(authorities));
+        return generateToken(claims);
+    }
+
     /**
      * 根据自定义负载生成JWT Token
      *
@@ -86,11 +180,28 @@ public class JwtUtil {
      * @return 生成的Token字符串
      */
     public String generateToken(Map<String, Object> claims) {
-        return Jwts.builder().setClaims(claims).setExpiration(getExpiration()).signWith(secretKey).compact();
+        return sign(Jwts.builder().setClaims(claims).setExpiration(getExpiration()));
+    }
+
+    /**
+     * 签名令牌：配置了 JWKS 签名密钥时使用私钥签名并写入 kid，否则使用 jwt-secret
+     */
+    private String sign(JwtBuilder builder) {
+        JwkKey signingKey = keyStore == null ? null : keyStore.getSigningKey();
+        if (signingKey != null) {
+            return builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
+                    .signWith(signingKey.getPrivateKey(), signingKey.getAlgorithm())
+                    .compact();
+        }
+        if (secretKey == null) {
+            throw new IllegalStateException("No signing key configured. Please set 'little.security.jwks.signing-key-id' or enable 'little.security.jwks.hmac-fallback'.");
+        }
+        return builder.signWith(secretKey).compact();
     }
 
     /**
      * 解析JWT Token
+     * 启用令牌缓存时，验证通过的令牌会被缓存，缓存时间不超过令牌的过期时间，返回的 Claims 是只读的
      *
      * @param token Token字符串
      * @return 解析后的Claims对象
@@ -99,8 +210,78 @@ public class JwtUtil {
         if (StrUtil.isBlank(token)) {
             throw new InvalidJwtTokenException("Token is empty.");
         }
+        if (tokenCache == null) {
+            return verify(token);
+        }
+        String key = SecureUtil.sha256(token);
+        // 缓存项的过期时间在写入时确定，访问不会续期
+        CachedClaims cached = tokenCache.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                cacheHit.increment();
+                return cached.claims();
+            }
+            tokenCache.remove(key, cached);
+        }
+        cacheMiss.increment();
+        Claims claims = new ImmutableClaims(verify(token));
+        long timeout = tokenCacheTtl;
+        if (claims.getExpiration() != null) {
+            timeout = Math.min(timeout, claims.getExpiration().getTime() - now);
+        }
+        if (timeout > 0) {
+            evictIfFull(now);
+            tokenCache.put(key, new CachedClaims(claims, now + timeout));
+        }
+        return claims;
+    }
+
+    /**
+     * 缓存写满时淘汰任意的令牌，直到低于容量；并发写入时缓存大小可能短暂超过容量
+     * 清理过期令牌需要遍历整个缓存，写满后每秒最多执行一次，由抢到时间窗口的线程执行，避免每次未命中都遍历
+     */
+    private void evictIfFull(long now) {
+        if (tokenCache.size() < tokenCacheMaxSize) {
+            return;
+        }
+        long sweepAt = nextTokenCacheSweep.get();
+        if (now >= sweepAt && nextTokenCacheSweep.compareAndSet(sweepAt, now + TOKEN_CACHE_SWEEP_INTERVAL)) {
+            tokenCache.values().removeIf(entry -> entry.expiresAt() <= now);
+        }
+        Iterator<String> keys = tokenCache.keySet().iterator();
+        while (tokenCache.size() >= tokenCacheMaxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * 从令牌缓存中移除指定令牌，例如用户登出后
+     *
+     * @param token Token字符串
+     */
+    public void evictToken(String token) {
+        if (tokenCache != null && StrUtil.isNotBlank(token)) {
+            tokenCache.remove(SecureUtil.sha256(token));
+        }
+    }
+
+    /**
+     * 校验签名并解析令牌
+     */
+    private Claims verify(String token) {
+        JwtParser parser = jwtParser;
+        if (keyStore != null) {
+            JwkKey key = keyStore.resolve(token);
+            if (key != null) {
+                parser = key.getParser();
+            } else if (parser == null) {
+                throw new InvalidJwtTokenException("Invalid JWT token: missing key id.");
+            }
+        }
         try {
-            return jwtParser.parseClaimsJws(token).getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException e) {
             if (e instanceof io.jsonwebtoken.ExpiredJwtException) {
                 throw new ExpiredJwtException("Token has expired");
@@ -158,7 +339,8 @@ public class JwtUtil {
         if (isTokenExpired(claims)) {
             throw new IllegalArgumentException("Cannot refresh an expired token.");
         }
-        return Jwts.builder().setClaims(claims).setExpiration(getExpiration()).signWith(secretKey).compact();
+        // 复制一份可修改的 Claims，解析结果可能是只读的缓存对象
+        return sign(Jwts.builder().setClaims(new HashMap<>(claims)).setExpiration(getExpiration()));
     }
 
     /**
@@ -232,8 +414,19 @@ public class JwtUtil {
         return null;
     }
 
+    /**
+     * 解析令牌中的 Claims，启用令牌缓存时优先从缓存中获取
+     *
+     * @param token Token字符串
+     * @return 解析后的Claims对象
+     */
     public Claims extractClaims(String token) {
-        return parseToken(token); // 已经是缓存后的版本
+        return parseToken(token);
     }
 
+    /**
+     * 令牌缓存项，expiresAt 不晚于令牌自身的过期时间
+     */
+    private record CachedClaims(Claims claims, long expiresAt) {
+    }
 }
@@ -0,0 +1,126 @@
+package cn.chenlijian.little.starter.web;
+
+import cn.chenlijian.little.starter.web.compression.CompressionFilter;
+import cn.chenlijian.little.starter.web.converter.StreamingRHttpMessageConverter;
+import cn.chenlijian.little.starter.web.etag.EtagFilter;
+import cn.chenlijian.little.starter.web.jackson.JacksonWarmUp;
+import cn.chenlijian.little.starter.web.props.LittleWebProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Web 自动配置类
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@AutoConfigureAfter(JacksonAutoConfiguration.class)
+@ConditionalOnProperty(prefix = LittleWebProperties.PREFIX, name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(LittleWebProperties.class)
+public class LittleWebAutoConfiguration {
+
+    /**
+     * 压缩过滤器的顺序，在日志的采集过滤器（HIGHEST_PRECEDENCE + 100）之前
+     */
+    public static final int COMPRESSION_FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 50;
+
+    @PostConstruct
+    public void init() {
+        log.info("Initializing little-starter-web successfully.");
+    }
+
+    /**
+     * 创建 StreamingR 的消息转换器
+     * Spring Boot 把容器中的 HttpMessageConverter 排在默认转换器之前，StreamingR 不会被默认的 Jackson 转换器处理
+     *
+     * @param objectMapper 容器中的 ObjectMapper，没有时使用默认配置
+     * @param properties   Web 模块配置
+     * @return StreamingRHttpMessageConverter 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public StreamingRHttpMessageConverter streamingRHttpMessageConverter(ObjectProvider<ObjectMapper> objectMapper,
+                                                                         LittleWebProperties properties) {
+        return new StreamingRHttpMessageConverter(objectMapper.getIfAvailable(ObjectMapper::new),
+                properties.getStreaming().getFlushInterval());
+    }
+
+    /**
+     * 注册 Blackbird 模块，Spring Boot 会把容器中的 Module 注册到自动配置的 ObjectMapper 上，
+     * spring.jackson.* 的配置仍然生效
+     * little.web.jackson.blackbird=false 时不生效
+     *
+     * @return BlackbirdModule 实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = LittleWebProperties.PREFIX, name = "jackson.blackbird", havingValue = "true", matchIfMissing = true)
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * 创建 Jackson 序列化器预热，在 Web 服务器接收请求前完成
+     * little.web.jackson.warm-up=false 时不生效
+     *
+     * @param objectMapper    容器中的 ObjectMapper
+     * @param handlerMappings 请求映射，用于获取接口的返回类型
+     * @return JacksonWarmUp 实例
+     */
+    @Bean
+    @ConditionalOnBean(ObjectMapper.class)
+    @ConditionalOnProperty(prefix = LittleWebProperties.PREFIX, name = "jackson.warm-up", havingValue = "true", matchIfMissing = true)
+    public JacksonWarmUp jacksonWarmUp(ObjectMapper objectMapper, ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        return new JacksonWarmUp(objectMapper, handlerMappings);
+    }
+
+    /**
+     * 创建并注册响应压缩过滤器
+     * 排在链路追踪过滤器之后、日志采集过滤器之前，日志记录压缩前的内容
+     * little.web.compression.enabled=false 时不生效
+     *
+     * @param properties Web 模块配置
+     * @return FilterRegistrationBean 包含过滤器注册信息的Bean
+     */
+    @Bean
+    public FilterRegistrationBean<CompressionFilter> compressionFilter(LittleWebProperties properties) {
+        FilterRegistrationBean<CompressionFilter> registration = new FilterRegistrationBean<>(new CompressionFilter(properties.getCompression()));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(COMPRESSION_FILTER_ORDER);
+        registration.setEnabled(properties.getCompression().isEnabled());
+        return registration;
+    }
+
+    /**
+     * 创建并注册 ETag 过滤器，排在压缩过滤器之内，按压缩前的内容计算 ETag
+     * 默认不生效，little.web.etag.enabled=true 时开启
+     *
+     * @param properties Web 模块配置
+     * @return FilterRegistrationBean 包含过滤器注册信息的Bean
+     */
+    @Bean
+    public FilterRegistrationBean<EtagFilter> etagFilter(LittleWebProperties properties) {
+        FilterRegistrationBean<EtagFilter> registration = new FilterRegistrationBean<>(new EtagFilter(properties.getEtag()));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(COMPRESSION_FILTER_ORDER + 10);
+        registration.setEnabled(properties.getEtag().isEnabled());
+        return registration;
+    }
+}
@@ -0,0 +1,79 @@
+package cn.chenlijian.little.starter.web.compression;
+
+import cn.chenlijian.little.common.utils.CompiledPathMatcher;
+import cn.chenlijian.little.starter.web.props.LittleWebProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 响应压缩过滤器
+ * 按 Accept-Encoding 协商 gzip 或 deflate，为匹配路径的响应套上 {@link CompressionResponseWrapper}：
+ * 小于阈值或内容类型不在列表中的响应原样输出，其余响应使用池化的 Deflater 压缩。
+ * HEAD 请求和带 Range 的请求不压缩。
+ * <p>
+ * 过滤器排在日志的响应采集过滤器之前（外层），日志记录的是压缩前的内容。异步请求在写出结果的异步派发结束后完成压缩。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final DeflaterPool pool;
+    private final int minResponseSize;
+    private final List<MediaType> mimeTypes;
+    private final CompiledPathMatcher pathMatcher;
+    private final CompiledPathMatcher excludePathMatcher;
+
+    public CompressionFilter(LittleWebProperties.Compression properties) {
+        this.pool = new DeflaterPool(properties.getLevel(), properties.getPoolSize());
+        this.minResponseSize = properties.getMinResponseSize();
+        this.mimeTypes = MediaType.parseMediaTypes(properties.getMimeTypes());
+        this.pathMatcher = CompiledPathMatcher.compile(properties.getPaths());
+        this.excludePathMatcher = CompiledPathMatcher.compile(properties.getExcludePaths());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return "HEAD".equals(request.getMethod()) || request.getHeader(HttpHeaders.RANGE) != null
+                || !pathMatcher.matches(path) || excludePathMatcher.matches(path);
+    }
+
+    /**
+     * 异步请求在异步派发中写出结果，需要再次经过本过滤器才能结束压缩
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // 异步派发时沿用第一次派发创建的包装器
+        CompressionResponseWrapper wrapper = WebUtils.getNativeResponse(response, CompressionResponseWrapper.class);
+        if (wrapper == null) {
+            ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (encoding == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            wrapper = new CompressionResponseWrapper(response, encoding, pool, minResponseSize, mimeTypes);
+        }
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                wrapper.finish();
+            }
+        }
+    }
+}
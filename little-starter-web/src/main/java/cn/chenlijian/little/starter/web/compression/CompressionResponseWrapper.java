@@ -0,0 +1,365 @@
+package cn.chenlijian.little.starter.web.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 压缩响应包装器
+ * 先缓存响应体的前 minResponseSize 个字节：响应在此之前结束时原样写出并设置 Content-Length；
+ * 超过后检查内容类型，可以压缩时设置 Content-Encoding 并从池中借用 Deflater 压缩后续内容，否则原样写出。
+ * 应用声明的 Content-Length 不小于阈值时直接开始压缩。
+ * <p>
+ * 达到阈值前调用 flush 或 {@link #flushBuffer()} 时立即结束判断，已缓存的内容原样发出，后续内容也不再压缩，
+ * SSE、{@code ResponseBodyEmitter} 和 {@code StreamingR} 等流式响应不会被缓冲延迟；{@code text/event-stream} 第一次写出时即判断为不压缩。
+ * 开始压缩后 flush 使用 SYNC_FLUSH，数据仍能及时发出。包装器只在一个请求中使用，不是线程安全的。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class CompressionResponseWrapper extends HttpServletResponseWrapper {
+
+    private final ContentEncoding encoding;
+    private final DeflaterPool pool;
+    private final int minResponseSize;
+    private final List<MediaType> mimeTypes;
+
+    private byte[] pending;
+    private int pendingLength;
+    private boolean decided;
+    private boolean compressing;
+    private boolean finished;
+    /**
+     * finish 刷新字符输出流时为 true，此时的 flush 不是应用发起的，不结束判断
+     */
+    private boolean finishing;
+    private Deflater deflater;
+    private DeflaterOutputStream compressed;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * 构造函数
+     *
+     * @param response        原始响应
+     * @param encoding        协商的编码
+     * @param pool            Deflater 池
+     * @param minResponseSize 压缩阈值（字节）
+     * @param mimeTypes       可以压缩的内容类型
+     */
+    public CompressionResponseWrapper(HttpServletResponse response, ContentEncoding encoding, DeflaterPool pool,
+                                      int minResponseSize, List<MediaType> mimeTypes) {
+        super(response);
+        this.encoding = encoding;
+        this.pool = pool;
+        this.minResponseSize = Math.max(0, minResponseSize);
+        this.mimeTypes = mimeTypes;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CompressingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            String characterEncoding = getCharacterEncoding();
+            Charset charset = characterEncoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(characterEncoding);
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.flush();
+        }
+        if (finished) {
+            return;
+        }
+        if (!decided) {
+            passThrough();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (decided) {
+            if (!compressing) {
+                super.setContentLengthLong(len);
+            }
+            return;
+        }
+        // 长度已知时不必等待缓冲，压缩后长度改变，不能再传递给原始响应
+        if (len >= minResponseSize && start()) {
+            return;
+        }
+        super.setContentLengthLong(len);
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value == null ? -1 : Long.parseLong(value.trim()));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setHeader(name, value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        resetState();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (!decided) {
+            pendingLength = 0;
+        }
+    }
+
+    /**
+     * 响应是否已压缩
+     *
+     * @return true 表示已设置 Content-Encoding 并压缩输出
+     */
+    public boolean isCompressed() {
+        return compressing;
+    }
+
+    /**
+     * 响应写完后调用：未达到阈值时原样写出缓存的内容，已压缩时写出剩余数据并归还 Deflater
+     *
+     * @throws IOException 写出失败
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (writer != null) {
+            finishing = true;
+            writer.flush();
+        }
+        finished = true;
+        try {
+            if (!decided) {
+                decided = true;
+                if (pendingLength > 0) {
+                    if (!isCommitted()) {
+                        super.setContentLengthLong(pendingLength);
+                    }
+                    super.getOutputStream().write(pending, 0, pendingLength);
+                }
+            } else if (compressing) {
+                // 没有写出任何内容时也输出一个完整的空压缩流
+                compressedStream().finish();
+            }
+        } finally {
+            releaseDeflater();
+        }
+    }
+
+    private void resetState() {
+        releaseDeflater();
+        compressed = null;
+        compressing = false;
+        decided = false;
+        pendingLength = 0;
+    }
+
+    private void releaseDeflater() {
+        if (deflater != null) {
+            pool.release(deflater, encoding.isNowrap());
+            deflater = null;
+        }
+    }
+
+    /**
+     * 尝试开始压缩，只判断一次
+     *
+     * @return true 表示已开始压缩
+     */
+    private boolean start() {
+        decided = true;
+        if (!isCompressible()) {
+            return false;
+        }
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentLengthLong(-1);
+        deflater = pool.acquire(encoding.isNowrap());
+        compressing = true;
+        return true;
+    }
+
+    /**
+     * 不压缩，原样写出已缓存的内容
+     */
+    private void passThrough() throws IOException {
+        decided = true;
+        if (pendingLength > 0) {
+            super.getOutputStream().write(pending, 0, pendingLength);
+            pendingLength = 0;
+        }
+    }
+
+    private boolean isEventStream() {
+        String contentType = getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.TEXT_EVENT_STREAM.includes(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private DeflaterOutputStream compressedStream() throws IOException {
+        if (compressed == null) {
+            compressed = encoding.wrap(super.getOutputStream(), deflater);
+        }
+        return compressed;
+    }
+
+    private boolean isCompressible() {
+        if (isCommitted() || containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        int status = getStatus();
+        if (status < 200 || status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED
+                || status == HttpServletResponse.SC_PARTIAL_CONTENT) {
+            return false;
+        }
+        String contentType = getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (MediaType mimeType : mimeTypes) {
+            if (mimeType.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 缓存阈值以内的数据，超过后按判断结果写出
+     */
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private CompressingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int len) throws IOException {
+            if (finished) {
+                // 与容器关闭输出流后的行为一致，忽略后续写出
+                return;
+            }
+            if (!decided && isEventStream()) {
+                passThrough();
+            }
+            if (!decided) {
+                if (pendingLength + len < minResponseSize) {
+                    if (pending == null) {
+                        pending = new byte[minResponseSize];
+                    }
+                    System.arraycopy(bytes, offset, pending, pendingLength, len);
+                    pendingLength += len;
+                    return;
+                }
+                start();
+                if (pendingLength > 0) {
+                    target().write(pending, 0, pendingLength);
+                    pendingLength = 0;
+                }
+            }
+            target().write(bytes, offset, len);
+        }
+
+        private OutputStream target() throws IOException {
+            return compressing ? compressedStream() : delegate;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (finished || finishing) {
+                return;
+            }
+            if (!decided) {
+                // 应用要求立即发出数据，不再等待达到阈值
+                passThrough();
+            }
+            target().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+}
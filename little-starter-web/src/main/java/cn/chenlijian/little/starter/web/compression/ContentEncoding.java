@@ -0,0 +1,120 @@
+package cn.chenlijian.little.starter.web.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 支持的响应压缩编码
+ * brotli 和 zstd 需要本地库（brotli4j、zstd-jni），不在此处提供
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public enum ContentEncoding {
+
+    GZIP("gzip", true),
+    DEFLATE("deflate", false);
+
+    /**
+     * Deflater 输出缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+    private final boolean nowrap;
+
+    ContentEncoding(String token, boolean nowrap) {
+        this.token = token;
+        this.nowrap = nowrap;
+    }
+
+    /**
+     * Content-Encoding 中的名称
+     *
+     * @return 名称
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * 是否使用不带 zlib 头的 Deflater
+     *
+     * @return true 表示不带 zlib 头
+     */
+    public boolean isNowrap() {
+        return nowrap;
+    }
+
+    /**
+     * 创建压缩输出流，flush 时使用 SYNC_FLUSH 把已写入的数据全部输出
+     *
+     * @param out      底层输出流
+     * @param deflater 与 {@link #isNowrap()} 匹配的 Deflater
+     * @return 压缩输出流，调用 {@link DeflaterOutputStream#finish()} 结束，不会关闭底层输出流和 Deflater
+     * @throws IOException 写出 gzip 头失败
+     */
+    public DeflaterOutputStream wrap(OutputStream out, Deflater deflater) throws IOException {
+        return this == GZIP ? new GzipStream(out, deflater, BUFFER_SIZE) : new DeflaterOutputStream(out, deflater, BUFFER_SIZE, true);
+    }
+
+    /**
+     * 按 Accept-Encoding 协商编码：取 q 值最高的受支持编码，q 值相同时 gzip 优先，{@code *} 视为 gzip
+     *
+     * @param acceptEncoding 请求头 Accept-Encoding
+     * @return 编码，没有可用的编码时返回 null
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        int length = acceptEncoding.length();
+        int start = 0;
+        while (start < length) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int semicolon = acceptEncoding.indexOf(';', start);
+            int nameEnd = semicolon >= 0 && semicolon < end ? semicolon : end;
+            String name = acceptEncoding.substring(start, nameEnd).trim();
+            double q = nameEnd < end ? quality(acceptEncoding.substring(nameEnd + 1, end)) : 1.0;
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzip = Math.max(gzip, q);
+            } else if (name.equalsIgnoreCase("deflate")) {
+                deflate = Math.max(deflate, q);
+            } else if (name.equals("*")) {
+                any = q;
+            }
+            start = end + 1;
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    private static double quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.length() > 2 && (trimmed.charAt(0) == 'q' || trimmed.charAt(0) == 'Q') && trimmed.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(trimmed.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
@@ -0,0 +1,67 @@
+package cn.chenlijian.little.starter.web.compression;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * {@link Deflater} 池
+ * Deflater 持有约 256KB 的本地内存，创建和 {@link Deflater#end()} 都有开销；归还时重置后供后续响应复用，
+ * 池满时归还的实例直接释放，借出时池空则新建。gzip 使用不带 zlib 头的实例，deflate 使用带 zlib 头的实例，分开保存。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class DeflaterPool {
+
+    private final int level;
+    private final int maxPooled;
+    private final Queue<Deflater> raw = new ConcurrentLinkedQueue<>();
+    private final Queue<Deflater> zlib = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * 构造函数
+     *
+     * @param level     压缩级别，-1 表示默认级别
+     * @param maxPooled 池中最多保留的实例数量
+     */
+    public DeflaterPool(int level, int maxPooled) {
+        this.level = level;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * 借出一个 Deflater
+     *
+     * @param nowrap true 表示不带 zlib 头（gzip 使用）
+     * @return Deflater
+     */
+    public Deflater acquire(boolean nowrap) {
+        Deflater deflater = (nowrap ? raw : zlib).poll();
+        if (deflater != null) {
+            pooled.decrementAndGet();
+            return deflater;
+        }
+        return new Deflater(level, nowrap);
+    }
+
+    /**
+     * 归还 Deflater
+     *
+     * @param deflater 通过 {@link #acquire(boolean)} 借出的实例
+     * @param nowrap   借出时的参数
+     */
+    public void release(Deflater deflater, boolean nowrap) {
+        if (deflater == null) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            deflater.reset();
+            (nowrap ? raw : zlib).offer(deflater);
+        } else {
+            pooled.decrementAndGet();
+            deflater.end();
+        }
+    }
+}
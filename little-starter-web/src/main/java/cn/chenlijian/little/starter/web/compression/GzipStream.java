@@ -0,0 +1,51 @@
+package cn.chenlijian.little.starter.web.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 使用外部 Deflater 的 gzip 输出流
+ * {@link java.util.zip.GZIPOutputStream} 总是自己创建 Deflater，无法从池中借用，这里按 RFC 1952 自行写出头和尾
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+final class GzipStream extends DeflaterOutputStream {
+
+    /**
+     * 魔数、CM=8（deflate）、无标志、MTIME=0、XFL=0、OS=255（未知）
+     */
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final CRC32 crc = new CRC32();
+    private boolean finished;
+
+    GzipStream(OutputStream out, Deflater deflater, int size) throws IOException {
+        super(out, deflater, size, true);
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        super.finish();
+        int value = (int) crc.getValue();
+        int size = (int) def.getBytesRead();
+        byte[] trailer = {
+                (byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24),
+                (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)
+        };
+        out.write(trailer);
+    }
+}
@@ -0,0 +1,134 @@
+package cn.chenlijian.little.starter.web.converter;
+
+import cn.chenlijian.little.common.api.RSerializer;
+import cn.chenlijian.little.common.api.StreamingR;
+import cn.chenlijian.little.starter.web.etag.EtagResponseWrapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * {@link StreamingR} 的消息转换器
+ * 按协商的媒体类型输出：
+ * <ul>
+ *     <li>JSON：与 {@link cn.chenlijian.little.common.api.R} 相同的结构，先写出 code、message 并立即刷新，客户端不必等待全部数据；</li>
+ *     <li>NDJSON（{@code application/x-ndjson}）：每行一个元素，不带外层结构，适合导出接口，接口上声明
+ *     {@code produces = MediaType.APPLICATION_NDJSON_VALUE} 或请求头 Accept 为该类型时使用。</li>
+ * </ul>
+ * 元素通过 {@link SequenceWriter} 逐个写出，按运行时类型复用序列化器；每写出 flushInterval 个元素刷新一次输出流。
+ * 写出结束或失败后关闭数据源。响应开始写出后不能再改为错误响应，数据源抛出的异常会中断连接。
+ * 响应经过 {@link EtagResponseWrapper} 时跳过 ETag 计算，数据不会被缓存到写完为止。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class StreamingRHttpMessageConverter extends AbstractHttpMessageConverter<StreamingR<?>> {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final ObjectWriter lineWriter;
+    private final int flushInterval;
+
+    /**
+     * 构造函数
+     *
+     * @param objectMapper  ObjectMapper
+     * @param flushInterval 每写出多少个元素刷新一次输出流，0 表示只在缓冲区写满时输出
+     */
+    public StreamingRHttpMessageConverter(ObjectMapper objectMapper, int flushInterval) {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+        // 由本类控制刷新时机，不在每个元素后刷新
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // NDJSON 每个元素必须在同一行
+        this.lineWriter = writer.without(SerializationFeature.INDENT_OUTPUT);
+        this.flushInterval = Math.max(0, flushInterval);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StreamingR.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StreamingR<?> readInternal(Class<? extends StreamingR<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StreamingR 只用于输出", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(StreamingR<?> value, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        boolean ndjson = contentType != null && MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType);
+        skipEtag(outputMessage);
+        try (value; JsonGenerator gen = objectMapper.getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            Iterator<?> data = value.open();
+            if (ndjson) {
+                writeLines(data, gen);
+            } else {
+                writeEnvelope(value, data, gen);
+            }
+        }
+    }
+
+    private static void skipEtag(HttpOutputMessage outputMessage) throws IOException {
+        if (outputMessage instanceof ServletServerHttpResponse response) {
+            EtagResponseWrapper etag = WebUtils.getNativeResponse(response.getServletResponse(), EtagResponseWrapper.class);
+            if (etag != null) {
+                etag.skip();
+            }
+        }
+    }
+
+    private void writeEnvelope(StreamingR<?> value, Iterator<?> data, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        RSerializer.writeHeader(value.getCode(), value.getMessage(), gen);
+        try (SequenceWriter sequence = writer.writeValuesAsArray(gen)) {
+            gen.flush();
+            int pending = 0;
+            while (data.hasNext()) {
+                sequence.write(data.next());
+                if (++pending == flushInterval) {
+                    pending = 0;
+                    gen.flush();
+                }
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeLines(Iterator<?> data, JsonGenerator gen) throws IOException {
+        // 行之间用换行分隔，不使用默认的空格
+        gen.setRootValueSeparator(null);
+        try (SequenceWriter sequence = lineWriter.writeValues(gen)) {
+            int pending = 0;
+            while (data.hasNext()) {
+                sequence.write(data.next());
+                gen.writeRaw('\n');
+                if (++pending == flushInterval) {
+                    pending = 0;
+                    gen.flush();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package cn.chenlijian.little.starter.web.etag;
+
+import cn.chenlijian.little.common.utils.CompiledPathMatcher;
+import cn.chenlijian.little.starter.web.props.LittleWebProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * ETag 与条件请求过滤器
+ * 为匹配路径的 GET/HEAD 请求计算响应体的弱 ETag（长度 + CRC32C），请求头 If-None-Match 匹配时回复 304，不再发送响应体。
+ * 与 Spring 的 {@code ShallowEtagHeaderFilter} 相比，摘要在写出时增量计算，且只缓存 maxSize 以内的响应，超过后直接输出。
+ * <p>
+ * 过滤器排在压缩过滤器之内，ETag 按压缩前的内容计算，不同编码的响应使用同一个弱 ETag。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class EtagFilter extends OncePerRequestFilter {
+
+    private final int maxSize;
+    private final CompiledPathMatcher pathMatcher;
+    private final CompiledPathMatcher excludePathMatcher;
+
+    public EtagFilter(LittleWebProperties.Etag properties) {
+        this.maxSize = Math.max(0, properties.getMaxSize());
+        this.pathMatcher = CompiledPathMatcher.compile(properties.getPaths());
+        this.excludePathMatcher = CompiledPathMatcher.compile(properties.getExcludePaths());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        return !("GET".equals(method) || "HEAD".equals(method)) || !pathMatcher.matches(path) || excludePathMatcher.matches(path);
+    }
+
+    /**
+     * 异步请求在异步派发中写出结果，需要再次经过本过滤器才能计算 ETag
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EtagResponseWrapper wrapper = WebUtils.getNativeResponse(response, EtagResponseWrapper.class);
+        if (wrapper == null) {
+            wrapper = new EtagResponseWrapper(response, maxSize);
+        }
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                complete(request, wrapper);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, EtagResponseWrapper wrapper) throws IOException {
+        String etag = wrapper.computeEtag();
+        if (etag != null && !wrapper.isCommitted()) {
+            wrapper.setHeader(HttpHeaders.ETAG, etag);
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                wrapper.discardContent();
+                wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        wrapper.writeContent();
+    }
+
+    /**
+     * 按弱比较判断 If-None-Match 是否包含 ETag：忽略 W/ 前缀，{@code *} 匹配任意值
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        // 去掉 W/ 前缀后的带引号值
+        String opaque = etag.substring(2);
+        int length = ifNoneMatch.length();
+        int start = 0;
+        while (start < length) {
+            int end = ifNoneMatch.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            String candidate = ifNoneMatch.substring(start, end).trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(opaque)) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,292 @@
+package cn.chenlijian.little.starter.web.etag;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.FastByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * 计算 ETag 的响应包装器
+ * 写出的内容先缓存，同时增量计算 CRC32C，响应结束时不需要再遍历一次缓存。
+ * 以下情况放弃计算并改为直接输出（已缓存的内容先写出）：
+ * <ul>
+ *     <li>内容超过 maxSize 个字节；</li>
+ *     <li>应用自己设置了 ETag，或者 Cache-Control 包含 no-store；</li>
+ *     <li>流式内容类型（{@code text/event-stream}、{@code application/x-ndjson}）；</li>
+ *     <li>调用了 {@link #flushBuffer()}（SSE、ResponseBodyEmitter 等需要立即发出数据），或通过 {@link #skip()} 主动跳过（{@code StreamingR}）。</li>
+ * </ul>
+ * 缓存期间忽略输出流的 flush（消息转换器写完后总会 flush）。包装器只在一个请求中使用，不是线程安全的。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class EtagResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int maxSize;
+    private final CRC32C crc = new CRC32C();
+
+    private FastByteArrayOutputStream content;
+    private boolean bypass;
+    private boolean checked;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * 构造函数
+     *
+     * @param response 原始响应
+     * @param maxSize  最多缓存的字节数
+     */
+    public EtagResponseWrapper(HttpServletResponse response, int maxSize) {
+        super(response);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new HashingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding);
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset));
+        }
+        return writer;
+    }
+
+    /**
+     * 应用显式要求发出数据，不再缓存
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (!bypass) {
+            startBypass();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        // 缓存期间由 finish 设置实际长度
+        if (bypass) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value == null ? -1 : Long.parseLong(value.trim()));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setHeader(name, value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        resetBuffer();
+        bypass = false;
+        checked = false;
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (content != null) {
+            content.reset();
+        }
+        crc.reset();
+    }
+
+    /**
+     * 跳过 ETag 计算，已缓存的内容立即写出，后续内容直接输出
+     * 用于写出时间较长、需要尽早发出数据的响应
+     *
+     * @throws IOException 写出缓存的内容失败
+     */
+    public void skip() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        checked = true;
+        if (!bypass) {
+            startBypass();
+        }
+    }
+
+    /**
+     * 响应写完后调用，返回 ETag 但不写出缓存的内容
+     *
+     * @return 弱 ETag，已放弃计算时返回 null
+     * @throws IOException 刷新字符输出流失败
+     */
+    public String computeEtag() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (bypass || !isCacheable()) {
+            return null;
+        }
+        int size = content == null ? 0 : content.size();
+        // 长度参与比较，同一长度下 CRC32C 碰撞的概率约为 2^-32
+        return "W/\"" + Integer.toHexString(size) + '-' + Long.toHexString(crc.getValue()) + '"';
+    }
+
+    /**
+     * 写出缓存的内容并设置 Content-Length
+     *
+     * @throws IOException 写出失败
+     */
+    public void writeContent() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (bypass || content == null) {
+            return;
+        }
+        bypass = true;
+        if (!isCommitted()) {
+            super.setContentLengthLong(content.size());
+        }
+        content.writeTo(super.getOutputStream());
+        content = null;
+    }
+
+    /**
+     * 放弃缓存的内容，用于回复 304
+     */
+    public void discardContent() {
+        bypass = true;
+        content = null;
+    }
+
+    private boolean isCacheable() {
+        if (getStatus() != HttpServletResponse.SC_OK || containsHeader(HttpHeaders.ETAG)) {
+            return false;
+        }
+        String cacheControl = getHeader(HttpHeaders.CACHE_CONTROL);
+        return cacheControl == null || !cacheControl.contains("no-store");
+    }
+
+    /**
+     * 第一次写出时内容类型和响应头已经确定，检查是否需要计算 ETag
+     */
+    private void checkFirstWrite() throws IOException {
+        checked = true;
+        if (!isCacheable() || isStreaming(getContentType())) {
+            startBypass();
+        }
+    }
+
+    private static boolean isStreaming(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return MediaType.TEXT_EVENT_STREAM.includes(mediaType) || MediaType.APPLICATION_NDJSON.includes(mediaType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void startBypass() throws IOException {
+        bypass = true;
+        if (content != null && content.size() > 0) {
+            content.writeTo(super.getOutputStream());
+        }
+        content = null;
+    }
+
+    /**
+     * 缓存并计算摘要的输出流
+     */
+    private final class HashingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private HashingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int len) throws IOException {
+            if (!checked) {
+                checkFirstWrite();
+            }
+            if (!bypass) {
+                if (content == null) {
+                    content = new FastByteArrayOutputStream(Math.min(maxSize, 4096));
+                }
+                if (content.size() + len <= maxSize) {
+                    content.write(bytes, offset, len);
+                    crc.update(bytes, offset, len);
+                    return;
+                }
+                startBypass();
+            }
+            delegate.write(bytes, offset, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (bypass) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeContent();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package cn.chenlijian.little.starter.web.jackson;
+
+import cn.chenlijian.little.common.api.FieldErrorVO;
+import cn.chenlijian.little.common.api.R;
+import cn.chenlijian.little.common.api.StreamingR;
+import cn.chenlijian.little.common.biz.log.dto.ApiLogDTO;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+/**
+ * Jackson 序列化器预热
+ * 所有单例创建完成后、Web 服务器开始接收请求前，解析常用响应类型和所有 {@code @ResponseBody} 接口返回类型的序列化器，
+ * 结果进入 ObjectMapper 的共享缓存，部署后的第一批请求不再承担反射分析（以及 Blackbird 生成访问器）的开销。
+ * <p>
+ * 返回类型按泛型展开：{@code ResponseEntity<R<List<OrderVO>>>} 依次预热 R、List 和 OrderVO。
+ * 预热失败只记录日志，不影响启动，对应的类型在第一次使用时照常解析。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Slf4j
+public class JacksonWarmUp implements SmartInitializingSingleton {
+
+    /**
+     * 总是预热的类型
+     */
+    private static final List<Class<?>> COMMON_TYPES = List.of(R.class, StreamingR.class, FieldErrorVO.class, ApiLogDTO.class);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+
+    public JacksonWarmUp(ObjectMapper objectMapper, ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        this.objectMapper = objectMapper;
+        this.handlerMappings = handlerMappings;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        SerializerProvider provider = objectMapper.getSerializerProviderInstance();
+        Set<Type> visited = new HashSet<>();
+        for (Class<?> type : COMMON_TYPES) {
+            warmUp(provider, ResolvableType.forClass(type), visited);
+        }
+        handlerMappings.orderedStream().forEach(mapping -> mapping.getHandlerMethods().values().forEach(method -> {
+            if (isResponseBody(method)) {
+                warmUp(provider, ResolvableType.forMethodParameter(method.getReturnType()), visited);
+            }
+        }));
+        log.info("Jackson 序列化器预热完成: {} 个类型, 耗时 {} ms", visited.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static boolean isResponseBody(HandlerMethod method) {
+        MethodParameter returnType = method.getReturnType();
+        return returnType.getParameterType() != void.class
+                && (returnType.hasMethodAnnotation(ResponseBody.class)
+                || AnnotatedElementUtils.hasAnnotation(method.getBeanType(), ResponseBody.class));
+    }
+
+    /**
+     * 解析类型的序列化器，并展开包装类型、容器元素和泛型参数
+     */
+    private void warmUp(SerializerProvider provider, ResolvableType type, Set<Type> visited) {
+        Class<?> raw = type.resolve();
+        if (raw == null || raw == Object.class || raw == void.class || !visited.add(type.getType())) {
+            return;
+        }
+        if (isWrapper(raw)) {
+            // 异步和响应实体包装本身不由 Jackson 序列化，只展开内部类型
+            visited.remove(type.getType());
+            warmUp(provider, type.getGeneric(0), visited);
+            return;
+        }
+        JavaType javaType = objectMapper.constructType(type.getType());
+        try {
+            provider.findValueSerializer(javaType);
+        } catch (JsonMappingException | RuntimeException e) {
+            log.debug("预热 {} 的序列化器失败: {}", javaType, e.toString());
+        }
+        if (type.isArray()) {
+            warmUp(provider, type.getComponentType(), visited);
+        }
+        for (ResolvableType generic : type.getGenerics()) {
+            warmUp(provider, generic, visited);
+        }
+    }
+
+    private static boolean isWrapper(Class<?> raw) {
+        return HttpEntity.class.isAssignableFrom(raw) || Optional.class == raw || Callable.class.isAssignableFrom(raw)
+                || CompletionStage.class.isAssignableFrom(raw) || Future.class.isAssignableFrom(raw)
+                || DeferredResult.class.isAssignableFrom(raw);
+    }
+}
@@ -0,0 +1,144 @@
+package cn.chenlijian.little.starter.web.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Web 模块配置
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+@Data
+@ConfigurationProperties(prefix = LittleWebProperties.PREFIX)
+public class LittleWebProperties {
+
+    public static final String PREFIX = "little.web";
+
+    private boolean enabled = true;
+
+    /**
+     * 流式响应配置
+     */
+    private Streaming streaming = new Streaming();
+
+    /**
+     * Jackson 配置
+     */
+    private Jackson jackson = new Jackson();
+
+    /**
+     * 响应压缩配置
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * ETag 配置
+     */
+    private Etag etag = new Etag();
+
+    /**
+     * 虚拟线程配置
+     */
+    private VirtualThreads virtualThreads = new VirtualThreads();
+
+    @Data
+    public static class Streaming {
+
+        /**
+         * 每写出多少个元素刷新一次输出流，让客户端尽早收到数据；0 表示只在缓冲区写满时输出
+         */
+        private int flushInterval = 256;
+    }
+
+    @Data
+    public static class Jackson {
+
+        /**
+         * 注册 Blackbird 模块，用 LambdaMetafactory 生成的访问器代替反射读写属性
+         */
+        private boolean blackbird = true;
+
+        /**
+         * 启动时预热常用响应类型和所有接口返回类型的序列化器
+         */
+        private boolean warmUp = true;
+    }
+
+    @Data
+    public static class Compression {
+
+        /**
+         * 是否启用响应压缩
+         */
+        private boolean enabled = true;
+
+        /**
+         * 需要压缩的路径，支持 Ant 风格通配符
+         */
+        private List<String> paths = List.of("/**");
+
+        /**
+         * 不压缩的路径，优先于 paths
+         */
+        private List<String> excludePaths = List.of();
+
+        /**
+         * 压缩阈值（字节），更小的响应原样输出
+         */
+        private int minResponseSize = 2048;
+
+        /**
+         * 可以压缩的内容类型
+         */
+        private List<String> mimeTypes = List.of("application/json", "application/*+json", "application/x-ndjson",
+                "application/xml", "application/javascript", "text/html", "text/xml", "text/plain", "text/css", "text/javascript");
+
+        /**
+         * 压缩级别 1-9，-1 表示默认级别（6）
+         */
+        private int level = Deflater.DEFAULT_COMPRESSION;
+
+        /**
+         * 池中最多保留的 Deflater 数量
+         */
+        private int poolSize = 64;
+    }
+
+    @Data
+    public static class Etag {
+
+        /**
+         * 是否为 GET/HEAD 响应计算 ETag 并处理 If-None-Match，默认关闭
+         * 开启后 maxSize 以内的响应体会在内存中缓存到写完为止
+         */
+        private boolean enabled = false;
+
+        /**
+         * 计算 ETag 的路径，支持 Ant 风格通配符
+         */
+        private List<String> paths = List.of("/**");
+
+        /**
+         * 不计算 ETag 的路径，优先于 paths
+         */
+        private List<String> excludePaths = List.of();
+
+        /**
+         * 最多缓存的响应字节数，更大的响应直接输出，不计算 ETag
+         */
+        private int maxSize = 256 * 1024;
+    }
+
+    @Data
+    public static class VirtualThreads {
+
+        /**
+         * 是否让 Tomcat 请求处理和 @Async 任务使用虚拟线程，Java 21 及以上生效，Java 17 时继续使用平台线程。
+         * 在环境准备阶段由 VirtualThreadsEnvironmentPostProcessor 读取，这里只用于生成配置元数据
+         */
+        private boolean enabled = false;
+    }
+}
@@ -0,0 +1,71 @@
+package cn.chenlijian.little.starter.web.thread;
+
+import cn.chenlijian.little.starter.web.props.LittleWebProperties;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * 虚拟线程模式的开关
+ * {@code little.web.virtual-threads.enabled=true} 且运行在 Java 21 及以上时，以最低优先级补充 {@code spring.threads.virtual.enabled=true}，
+ * 由 Spring Boot 把 Tomcat 的请求处理线程、{@code @Async} 使用的 applicationTaskExecutor（包括默认日志发布者）和定时任务切换为虚拟线程；
+ * 应用显式配置了 {@code spring.threads.virtual.enabled} 时以应用的配置为准。
+ * <p>
+ * 运行在 Java 17 时只记录警告，继续使用平台线程。
+ * 每个请求仍由一个线程从头执行到尾，{@code ContextUtil}、{@code RequestContextHolder} 等线程变量照常可用；
+ * 虚拟线程不会复用，请求结束后残留的线程变量随线程一起回收。
+ *
+ * @author chenlijian xdmdcp@163.com
+ */
+public class VirtualThreadsEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    /**
+     * 本模块的开关
+     */
+    public static final String ENABLED_PROPERTY = LittleWebProperties.PREFIX + ".virtual-threads.enabled";
+
+    /**
+     * Spring Boot 的虚拟线程开关
+     */
+    public static final String SPRING_PROPERTY = "spring.threads.virtual.enabled";
+
+    private static final String PROPERTY_SOURCE_NAME = "littleVirtualThreads";
+
+    private final Log log;
+
+    public VirtualThreadsEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(VirtualThreadsEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.getProperty(LittleWebProperties.PREFIX + ".enabled", Boolean.class, true)
+                || !environment.getProperty(ENABLED_PROPERTY, Boolean.class, false)) {
+            return;
+        }
+        if (!JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            log.warn("当前 Java 版本 " + Runtime.version().feature() + " 不支持虚拟线程，" + ENABLED_PROPERTY + " 不生效，继续使用平台线程");
+            return;
+        }
+        if (environment.containsProperty(SPRING_PROPERTY)) {
+            return;
+        }
+        environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME, Map.of(SPRING_PROPERTY, "true")));
+        log.info("已启用虚拟线程: Tomcat 请求处理和 @Async 任务使用虚拟线程执行");
+    }
+
+    /**
+     * 在配置文件加载之后执行，才能读取 application.yml 中的开关
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}